@@ -3,6 +3,7 @@ plugins {
     id("java-library")
     id("maven-publish")
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.bravos.steak"
@@ -33,6 +34,21 @@ dependencies {
     implementation("org.springframework.kafka:spring-kafka:4.0.1")
     implementation("com.github.Bravos-World:steak-utils:1.1.5")
     implementation("com.github.Bravos-World:steak-security-starter:v1.0.2")
+    testImplementation(platform("org.junit:junit-bom:5.12.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    profilers = listOf("gc")
 }
 
 publishing {
@@ -0,0 +1,73 @@
+package com.bravos.steak.logging.starter.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link FormatBufferStrategy} options: the per-thread builder, the {@link StripedStringBuilderPool}
+ * and the adaptive mix.
+ * <p>
+ * The platform benchmarks format on long-lived JMH threads, where the thread-local builder is cheapest. The
+ * virtual thread benchmark formats one message per new virtual thread, as a request handler would; thread
+ * start is the same for every strategy, so the difference is the buffer, and the {@code gc} profiler shows
+ * the builder each virtual thread allocates under {@link FormatBufferStrategy#THREAD_LOCAL}.
+ * <pre>{@code ./gradlew jmh}</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FormatBufferBenchmark {
+
+  private static final int VIRTUAL_THREADS = 1000;
+  private static final String PATTERN = "User {} paid order {} with {}";
+
+  @Param({"THREAD_LOCAL", "STRIPED", "ADAPTIVE"})
+  public FormatBufferStrategy strategy;
+
+  private final Object userId = 42L;
+  private final Object orderId = "order-7";
+  private final Object amount = 9.99;
+
+  @Benchmark
+  @Threads(1)
+  public String platformThread() {
+    return LogMessageFormatter.format(strategy, PATTERN, userId, orderId, amount);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String platformThreads4() {
+    return LogMessageFormatter.format(strategy, PATTERN, userId, orderId, amount);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(VIRTUAL_THREADS)
+  @SuppressWarnings("unchecked")
+  public void virtualThreads(Blackhole blackhole) throws InterruptedException, ExecutionException {
+    Future<String>[] results = new Future[VIRTUAL_THREADS];
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < VIRTUAL_THREADS; i++) {
+        results[i] = executor.submit(() -> LogMessageFormatter.format(strategy, PATTERN, userId, orderId, amount));
+      }
+    }
+    for (Future<String> result : results) {
+      blackhole.consume(result.get());
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.bravos.steak.logging.starter.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per log call of the fixed-arity {@link Logger} overloads; read {@code gc.alloc.rate.norm}
+ * (bytes per operation) from the {@code gc} profiler the jmh task enables.
+ * <p>
+ * With deferred formatting the fixed-arity calls are expected at 0 B/op: no varargs array, no
+ * {@link LogMessageFormatter.FormattedResult}, and the arguments go into the slot's own array. Eager
+ * formatting still allocates the formatted message String; the varargs call shows the array on top.
+ * Kafka sending is off and the trace ID is constant, so only the logging thread's own path is measured.
+ * <pre>{@code ./gradlew jmh}</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LoggerAllocationBenchmark {
+
+  private static final String TRACE_ID = "benchmark-trace";
+
+  private LoggerFactory deferredFactory;
+  private LoggerFactory eagerFactory;
+  private Logger deferred;
+  private Logger eager;
+
+  // Pre-boxed, so boxing does not show up as logging allocation
+  private final Object userId = 42L;
+  private final Object orderId = "order-7";
+  private final Object amount = 9.99;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    deferredFactory = factory(true);
+    eagerFactory = factory(false);
+    deferred = deferredFactory.getLogger(LoggerAllocationBenchmark.class);
+    eager = eagerFactory.getLogger(LoggerAllocationBenchmark.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    deferredFactory.shutdown();
+    eagerFactory.shutdown();
+  }
+
+  private static LoggerFactory factory(boolean deferredFormatting) {
+    return LoggerFactory.builder()
+        .serviceName("benchmark")
+        .sendToKafka(false)
+        .consoleEnabled(false)
+        .traceIdGenerator(() -> TRACE_ID)
+        .idAssignment(IdAssignment.CONSUMER)
+        .deferredFormatting(deferredFormatting)
+        .backpressurePolicy(BackpressurePolicy.BLOCK)
+        .backpressureTimeout(Duration.ofSeconds(1))
+        .build();
+  }
+
+  @Benchmark
+  public void deferredOneArg() {
+    deferred.info("USER_LOGIN", "User {} logged in", userId);
+  }
+
+  @Benchmark
+  public void deferredTwoArgs() {
+    deferred.info("ORDER_CREATED", "User {} created order {}", userId, orderId);
+  }
+
+  @Benchmark
+  public void deferredThreeArgs() {
+    deferred.info("ORDER_PAID", "User {} paid order {} with {}", userId, orderId, amount);
+  }
+
+  @Benchmark
+  public void deferredVarargs() {
+    deferred.info("ORDER_PAID", "User {} paid order {} with {} at {}", userId, orderId, amount, userId);
+  }
+
+  @Benchmark
+  public void eagerOneArg() {
+    eager.info("USER_LOGIN", "User {} logged in", userId);
+  }
+
+  @Benchmark
+  public void eagerThreeArgs() {
+    eager.info("ORDER_PAID", "User {} paid order {} with {}", userId, orderId, amount);
+  }
+
+}
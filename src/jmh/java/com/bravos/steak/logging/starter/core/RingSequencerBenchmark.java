@@ -0,0 +1,242 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.BusySpinWaitStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compares the padded {@link RingSequencer} with availability array against the previous layout:
+ * adjacent {@link AtomicLong} producer/consumer sequences and a volatile published flag per slot.
+ * <p>
+ * Producers and one consumer run as a JMH group; the {@code published} counter is the handoff
+ * throughput. Producers that find the ring full count nothing, so a slow consumer shows up as a
+ * lower rate. The {@code falseSharing} groups isolate the padding: two writers updating neighbouring
+ * slots of an {@link AtomicLongArray} against two {@link Sequence}s.
+ * <pre>{@code ./gradlew jmh}</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RingSequencerBenchmark {
+
+  private static final int BUFFER_SIZE = 1024;
+
+  @State(Scope.Group)
+  public static class PaddedRing {
+
+    RingSequencer sequencer;
+    long nextSequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      sequencer = new RingSequencer(BUFFER_SIZE, new BusySpinWaitStrategy());
+      nextSequence = 0;
+    }
+  }
+
+  /**
+   * The sequencing of the ring buffer before padding: adjacent atomics and a volatile flag per slot.
+   */
+  @State(Scope.Group)
+  public static class LegacyRing {
+
+    final AtomicLong producerSequence = new AtomicLong(-1);
+    final AtomicLong consumerSequence = new AtomicLong(-1);
+    Slot[] slots;
+    long nextSequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      producerSequence.set(-1);
+      consumerSequence.set(-1);
+      slots = new Slot[BUFFER_SIZE];
+      for (int i = 0; i < BUFFER_SIZE; i++) {
+        slots[i] = new Slot();
+      }
+      nextSequence = 0;
+    }
+
+    long tryNext() {
+      long current;
+      long next;
+      do {
+        current = producerSequence.get();
+        next = current + 1;
+        if (next - BUFFER_SIZE > consumerSequence.get()) {
+          return -1;
+        }
+      } while (!producerSequence.compareAndSet(current, next));
+      return next;
+    }
+
+    static final class Slot {
+      volatile boolean published;
+    }
+  }
+
+  @State(Scope.Group)
+  public static class AdjacentCounters {
+
+    final AtomicLongArray counters = new AtomicLongArray(2);
+  }
+
+  @State(Scope.Group)
+  public static class PaddedCounters {
+
+    final Sequence first = new Sequence(0);
+    final Sequence second = new Sequence(0);
+  }
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Published {
+
+    public long published;
+  }
+
+  // ==================== PADDED SEQUENCER ====================
+
+  @Benchmark
+  @Group("padded_1p")
+  @GroupThreads(1)
+  public void paddedProduce1(PaddedRing ring, Published counter) {
+    producePadded(ring, counter);
+  }
+
+  @Benchmark
+  @Group("padded_1p")
+  @GroupThreads(1)
+  public long paddedConsume1(PaddedRing ring) {
+    return consumePadded(ring);
+  }
+
+  @Benchmark
+  @Group("padded_3p")
+  @GroupThreads(3)
+  public void paddedProduce3(PaddedRing ring, Published counter) {
+    producePadded(ring, counter);
+  }
+
+  @Benchmark
+  @Group("padded_3p")
+  @GroupThreads(1)
+  public long paddedConsume3(PaddedRing ring) {
+    return consumePadded(ring);
+  }
+
+  private static void producePadded(PaddedRing ring, Published counter) {
+    long sequence = ring.sequencer.tryNext(1);
+    if (sequence >= 0) {
+      ring.sequencer.publish(sequence);
+      counter.published++;
+    }
+  }
+
+  private static long consumePadded(PaddedRing ring) {
+    long available = ring.sequencer.highestPublishedSequence(ring.nextSequence);
+    if (available >= ring.nextSequence) {
+      ring.nextSequence = available + 1;
+      ring.sequencer.release(available);
+    }
+    return available;
+  }
+
+  // ==================== LEGACY SEQUENCER ====================
+
+  @Benchmark
+  @Group("legacy_1p")
+  @GroupThreads(1)
+  public void legacyProduce1(LegacyRing ring, Published counter) {
+    produceLegacy(ring, counter);
+  }
+
+  @Benchmark
+  @Group("legacy_1p")
+  @GroupThreads(1)
+  public long legacyConsume1(LegacyRing ring) {
+    return consumeLegacy(ring);
+  }
+
+  @Benchmark
+  @Group("legacy_3p")
+  @GroupThreads(3)
+  public void legacyProduce3(LegacyRing ring, Published counter) {
+    produceLegacy(ring, counter);
+  }
+
+  @Benchmark
+  @Group("legacy_3p")
+  @GroupThreads(1)
+  public long legacyConsume3(LegacyRing ring) {
+    return consumeLegacy(ring);
+  }
+
+  private static void produceLegacy(LegacyRing ring, Published counter) {
+    long sequence = ring.tryNext();
+    if (sequence >= 0) {
+      ring.slots[(int) (sequence & (BUFFER_SIZE - 1))].published = true;
+      counter.published++;
+    }
+  }
+
+  private static long consumeLegacy(LegacyRing ring) {
+    long available = ring.producerSequence.get();
+    long sequence = ring.nextSequence;
+    while (sequence <= available) {
+      LegacyRing.Slot slot = ring.slots[(int) (sequence & (BUFFER_SIZE - 1))];
+      if (!slot.published) {
+        break;
+      }
+      slot.published = false;
+      sequence++;
+    }
+    if (sequence > ring.nextSequence) {
+      ring.nextSequence = sequence;
+      ring.consumerSequence.set(sequence - 1);
+    }
+    return sequence;
+  }
+
+  // ==================== FALSE SHARING ====================
+
+  @Benchmark
+  @Group("falseSharing_adjacent")
+  @GroupThreads(1)
+  public void adjacentFirst(AdjacentCounters counters) {
+    counters.counters.lazySet(0, counters.counters.get(0) + 1);
+  }
+
+  @Benchmark
+  @Group("falseSharing_adjacent")
+  @GroupThreads(1)
+  public void adjacentSecond(AdjacentCounters counters) {
+    counters.counters.lazySet(1, counters.counters.get(1) + 1);
+  }
+
+  @Benchmark
+  @Group("falseSharing_padded")
+  @GroupThreads(1)
+  public void paddedFirst(PaddedCounters counters) {
+    counters.first.set(counters.first.get() + 1);
+  }
+
+  @Benchmark
+  @Group("falseSharing_padded")
+  @GroupThreads(1)
+  public void paddedSecond(PaddedCounters counters) {
+    counters.second.set(counters.second.get() + 1);
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.bravos.steak.logging.starter.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to run a method, typically a scheduled task, in a job trace scope:
+ * all events it logs outside a request context share one trace ID.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TraceJob {
+}
@@ -0,0 +1,16 @@
+package com.bravos.steak.logging.starter.annotation.aspect;
+
+import com.bravos.steak.logging.starter.core.trace.JobTraceScope;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+@Aspect
+public class TraceJobAspect {
+
+  @Around("@annotation(com.bravos.steak.logging.starter.annotation.TraceJob)")
+  public Object traceJob(ProceedingJoinPoint joinPoint) throws Throwable {
+    return JobTraceScope.call(joinPoint::proceed);
+  }
+
+}
@@ -2,16 +2,46 @@ package com.bravos.steak.logging.starter.configuration;
 
 import com.bravos.steak.commonutils.shared.helper.Snowflake;
 import com.bravos.steak.logging.starter.annotation.aspect.MutateSensitveAspect;
+import com.bravos.steak.logging.starter.annotation.aspect.TraceJobAspect;
 import com.bravos.steak.logging.starter.core.Audittor;
+import com.bravos.steak.logging.starter.core.BackpressurePolicy;
+import com.bravos.steak.logging.starter.core.ConsumerThreadMode;
+import com.bravos.steak.logging.starter.core.FormatBufferStrategy;
+import com.bravos.steak.logging.starter.core.IdAssignment;
+import com.bravos.steak.logging.starter.core.LogLevel;
 import com.bravos.steak.logging.starter.core.LoggerFactory;
+import com.bravos.steak.logging.starter.core.MetricDefinition;
+import com.bravos.steak.logging.starter.core.RingBufferMode;
+import com.bravos.steak.logging.starter.core.clock.CoarseLogClock;
+import com.bravos.steak.logging.starter.core.sampling.SamplingPolicy;
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.core.clock.PreciseLogClock;
+import com.bravos.steak.logging.starter.core.clock.SystemLogClock;
+import com.bravos.steak.logging.starter.core.trace.RandomTraceIdGenerator;
+import com.bravos.steak.logging.starter.core.trace.SnowflakeTraceIdGenerator;
+import com.bravos.steak.logging.starter.core.trace.TraceIdGenerator;
+import com.bravos.steak.logging.starter.core.trace.UuidTraceIdGenerator;
+import com.bravos.steak.logging.starter.core.wait.*;
+import com.bravos.steak.logging.starter.journal.AuditWriteAheadLog;
 import com.bravos.steak.logging.starter.transform.Transformer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 @AutoConfiguration
 public class LoggingFactoryAutoConfiguration {
 
@@ -36,31 +66,232 @@ public class LoggingFactoryAutoConfiguration {
   @Value("${logging.send-to-kafka:true}")
   private boolean sendToKafka;
 
+  @Value("${logging.trace-id.generator:random}")
+  private String traceIdGenerator;
+
+  @Value("${logging.clock.type:system}")
+  private String clockType;
+
+  @Value("${logging.clock.coarse-resolution-ms:1}")
+  private long clockCoarseResolutionMs;
+
+  @Value("${logging.async.wait-strategy:phased-backoff}")
+  private String waitStrategy;
+
+  @Value("${logging.async.consumer-thread:platform}")
+  private ConsumerThreadMode consumerThreadMode;
+
+  @Value("${logging.async.shards:1}")
+  private int ringBufferShards;
+
+  @Value("${logging.async.timestamp-merge:false}")
+  private boolean timestampMerge;
+
+  @Value("${logging.async.deferred-formatting:false}")
+  private boolean deferredFormatting;
+
+  @Value("${logging.async.format-buffer:adaptive}")
+  private FormatBufferStrategy formatBufferStrategy;
+
+  @Value("${logging.async.id-assignment:caller}")
+  private IdAssignment idAssignment;
+
+  @Value("${logging.metrics.interval-ms:60000}")
+  private long metricIntervalMs;
+
+  @Value("${logging.async.aggregation.enabled:false}")
+  private boolean aggregationEnabled;
+
+  @Value("${logging.async.aggregation.window-ms:1000}")
+  private long aggregationWindowMs;
+
+  @Value("${logging.async.aggregation.max-fingerprints:1024}")
+  private int aggregationMaxFingerprints;
+
+  @Value("${logging.tail-sampling.enabled:false}")
+  private boolean tailSamplingEnabled;
+
+  @Value("${logging.tail-sampling.level:debug}")
+  private LogLevel tailSamplingLevel;
+
+  @Value("${logging.tail-sampling.max-events-per-trace:256}")
+  private int tailSamplingMaxEventsPerTrace;
+
+  @Value("${logging.tail-sampling.max-traces:10000}")
+  private int tailSamplingMaxTraces;
+
+  @Value("${logging.tail-sampling.max-events:10000}")
+  private long tailSamplingMaxEvents;
+
+  @Value("${logging.tail-sampling.max-bytes-mb:8}")
+  private long tailSamplingMaxBytesMb;
+
+  @Value("${logging.tail-sampling.idle-timeout-ms:30000}")
+  private long tailSamplingIdleTimeoutMs;
+
+  @Value("${logging.tail-sampling.completion-grace-ms:1000}")
+  private long tailSamplingCompletionGraceMs;
+
+  @Value("${logging.async.lanes.enabled:false}")
+  private boolean priorityLanes;
+
+  @Value("${logging.async.lanes.critical-size:4096}")
+  private int criticalLaneSize;
+
+  @Value("${logging.async.lanes.critical-weight:4}")
+  private int criticalLaneWeight;
+
+  @Value("${logging.async.lanes.standard-weight:1}")
+  private int standardLaneWeight;
+
+  @Value("${logging.async.mode:heap}")
+  private RingBufferMode ringBufferMode;
+
+  @Value("${logging.async.off-heap.capacity-mb:16}")
+  private long offHeapCapacityMb;
+
+  @Value("${logging.async.off-heap.slot-size:1024}")
+  private int offHeapSlotSize;
+
+  @Value("${logging.async.backpressure.policy:drop-newest}")
+  private BackpressurePolicy backpressurePolicy;
+
+  @Value("${logging.async.backpressure.info-policy:${logging.async.backpressure.policy:drop-newest}}")
+  private BackpressurePolicy infoBackpressurePolicy;
+
+  @Value("${logging.async.backpressure.debug-policy:${logging.async.backpressure.policy:drop-newest}}")
+  private BackpressurePolicy debugBackpressurePolicy;
+
+  @Value("${logging.async.backpressure.error-policy:${logging.async.backpressure.policy:drop-newest}}")
+  private BackpressurePolicy errorBackpressurePolicy;
+
+  @Value("${logging.async.backpressure.warn-policy:${logging.async.backpressure.policy:drop-newest}}")
+  private BackpressurePolicy warnBackpressurePolicy;
+
+  @Value("${logging.async.backpressure.timeout-ms:10}")
+  private long backpressureTimeoutMs;
+
+  @Value("${logging.async.overflow.directory:}")
+  private String overflowDirectory;
+
+  @Value("${logging.async.overflow.segment-size-mb:16}")
+  private int overflowSegmentSizeMb;
+
+  @Value("${logging.async.overflow.max-segments:8}")
+  private int overflowMaxSegments;
+
+  @Value("${logging.audit.wal.directory:}")
+  private String auditWalDirectory;
+
+  @Value("${logging.audit.wal.segment-size-mb:16}")
+  private int auditWalSegmentSizeMb;
+
+  @Value("${logging.audit.wal.max-segments:64}")
+  private int auditWalMaxSegments;
+
+  @Value("${logging.audit.wal.sync-every-records:256}")
+  private int auditWalSyncEveryRecords;
+
+  @Value("${logging.audit.wal.sync-interval-ms:5}")
+  private long auditWalSyncIntervalMs;
+
+  @Bean
+  @ConditionalOnMissingBean(LogClock.class)
+  public LogClock logClock() {
+    return switch (clockType.toLowerCase()) {
+      case "system" -> new SystemLogClock();
+      case "coarse" -> new CoarseLogClock(Duration.ofMillis(clockCoarseResolutionMs));
+      case "precise" -> new PreciseLogClock();
+      default -> throw new IllegalArgumentException("Unknown logging.clock.type: " + clockType);
+    };
+  }
+
   @Bean
   @ConditionalOnMissingBean(LoggerFactory.class)
   @ConditionalOnBean({KafkaTemplate.class, Snowflake.class})
-  public LoggerFactory loggerFactory(KafkaTemplate<String, Object> kafkaTemplate, Snowflake snowflake) {
+  public LoggerFactory loggerFactory(KafkaTemplate<String, Object> kafkaTemplate, Snowflake snowflake,
+                                     LogClock logClock, Environment environment) {
+    // logging.levels.<class or package>=debug|info|warn|error
+    Map<String, LogLevel> levels = Binder.get(environment)
+        .bind("logging.levels", Bindable.mapOf(String.class, LogLevel.class))
+        .orElse(Map.of());
+    // logging.sampling.<event name>=ratio:0.01 | rate:100/1s | first:10/1m
+    Map<String, String> sampling = Binder.get(environment)
+        .bind("logging.sampling", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    Map<String, SamplingPolicy> samplingPolicies = new HashMap<>();
+    sampling.forEach((eventName, spec) -> samplingPolicies.put(eventName, createSamplingPolicy(eventName, spec)));
+    // logging.metrics.events.<event name>=count | <metadata key>:<bucket bound>,<bucket bound>,...
+    Map<String, String> metricEvents = Binder.get(environment)
+        .bind("logging.metrics.events", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    Map<String, MetricDefinition> metricDefinitions = new HashMap<>();
+    metricEvents.forEach((eventName, spec) -> metricDefinitions.put(eventName, createMetricDefinition(eventName, spec)));
     return LoggerFactory.builder()
         .kafkaTemplate(kafkaTemplate)
         .serviceName(serviceName)
         .snowflake(snowflake)
+        .traceIdGenerator(createTraceIdGenerator(traceIdGenerator, snowflake))
+        .clock(logClock)
         .infoEnabled(infoEnabled)
         .debugEnabled(debugEnabled)
         .errorEnabled(errorEnabled)
         .warnEnabled(warnEnabled)
         .consoleEnabled(consoleEnabled)
+        .levels(levels)
+        .samplingPolicies(samplingPolicies)
+        .metricEvents(metricDefinitions)
+        .metricInterval(Duration.ofMillis(metricIntervalMs))
+        .waitStrategy(createWaitStrategy(waitStrategy))
+        .consumerThreadMode(consumerThreadMode)
+        .ringBufferShards(ringBufferShards)
+        .timestampMerge(timestampMerge)
+        .deferredFormatting(deferredFormatting)
+        .formatBufferStrategy(formatBufferStrategy)
+        .idAssignment(idAssignment)
+        .repeatedEventAggregation(aggregationEnabled)
+        .aggregationWindow(Duration.ofMillis(aggregationWindowMs))
+        .aggregationMaxFingerprints(aggregationMaxFingerprints)
+        .tailSampling(tailSamplingEnabled)
+        .tailSamplingLevel(tailSamplingLevel)
+        .tailSamplingMaxEventsPerTrace(tailSamplingMaxEventsPerTrace)
+        .tailSamplingMaxTraces(tailSamplingMaxTraces)
+        .tailSamplingMaxEvents(tailSamplingMaxEvents)
+        .tailSamplingMaxBytes(tailSamplingMaxBytesMb * 1024 * 1024)
+        .tailSamplingIdleTimeout(Duration.ofMillis(tailSamplingIdleTimeoutMs))
+        .tailSamplingCompletionGrace(Duration.ofMillis(tailSamplingCompletionGraceMs))
+        .priorityLanes(priorityLanes)
+        .criticalLaneSize(criticalLaneSize)
+        .criticalLaneWeight(criticalLaneWeight)
+        .standardLaneWeight(standardLaneWeight)
+        .ringBufferMode(ringBufferMode)
+        .offHeapCapacityBytes(offHeapCapacityMb * 1024 * 1024)
+        .offHeapSlotSize(offHeapSlotSize)
+        .backpressurePolicy(backpressurePolicy)
+        .backpressurePolicy(LogLevel.INFO, infoBackpressurePolicy)
+        .backpressurePolicy(LogLevel.DEBUG, debugBackpressurePolicy)
+        .backpressurePolicy(LogLevel.ERROR, errorBackpressurePolicy)
+        .backpressurePolicy(LogLevel.WARN, warnBackpressurePolicy)
+        .backpressureTimeout(Duration.ofMillis(backpressureTimeoutMs))
+        .overflowJournalDirectory(overflowDirectory.isBlank() ? null : Path.of(overflowDirectory))
+        .overflowJournalSegmentSize(overflowSegmentSizeMb * 1024 * 1024)
+        .overflowJournalMaxSegments(overflowMaxSegments)
         .build();
   }
 
   @Bean
   @ConditionalOnMissingBean(Audittor.class)
   @ConditionalOnBean({KafkaTemplate.class, Snowflake.class})
-  public Audittor audittor(KafkaTemplate<String, Object> kafkaTemplate, Snowflake snowflake) {
-    return Audittor.builder()
+  public Audittor audittor(KafkaTemplate<String, Object> kafkaTemplate, Snowflake snowflake, LogClock logClock) {
+    Audittor audittor = Audittor.builder()
         .snowflake(snowflake)
+        .clock(logClock)
         .kafkaTemplate(kafkaTemplate)
         .serviceName(serviceName)
+        .writeAheadLog(createAuditWriteAheadLog())
         .build();
+    audittor.startWriteAheadLogReplay();
+    return audittor;
   }
 
   @Bean
@@ -70,4 +301,75 @@ public class LoggingFactoryAutoConfiguration {
     return new MutateSensitveAspect(transformer);
   }
 
+  @Bean
+  @ConditionalOnMissingBean(TraceJobAspect.class)
+  public TraceJobAspect traceJobAspect() {
+    return new TraceJobAspect();
+  }
+
+  private TraceIdGenerator createTraceIdGenerator(String name, Snowflake snowflake) {
+    return switch (name.toLowerCase()) {
+      case "random" -> new RandomTraceIdGenerator();
+      case "uuid" -> new UuidTraceIdGenerator();
+      case "snowflake" -> new SnowflakeTraceIdGenerator(snowflake);
+      default -> throw new IllegalArgumentException("Unknown logging.trace-id.generator: " + name);
+    };
+  }
+
+  private AuditWriteAheadLog createAuditWriteAheadLog() {
+    if (auditWalDirectory.isBlank()) {
+      return null;
+    }
+    try {
+      return new AuditWriteAheadLog(
+          Path.of(auditWalDirectory),
+          auditWalSegmentSizeMb * 1024 * 1024,
+          auditWalMaxSegments,
+          auditWalSyncEveryRecords,
+          Duration.ofMillis(auditWalSyncIntervalMs)
+      );
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open audit write-ahead log in " + auditWalDirectory, e);
+    }
+  }
+
+  private MetricDefinition createMetricDefinition(String eventName, String spec) {
+    if (spec.trim().equalsIgnoreCase("count")) {
+      return MetricDefinition.counter();
+    }
+    int colon = spec.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("Invalid logging.metrics.events definition for " + eventName + ": " + spec);
+    }
+    double[] bounds = Arrays.stream(spec.substring(colon + 1).split(","))
+        .map(String::trim)
+        .mapToDouble(Double::parseDouble)
+        .toArray();
+    return MetricDefinition.histogram(spec.substring(0, colon).trim(), bounds);
+  }
+
+  private SamplingPolicy createSamplingPolicy(String eventName, String spec) {
+    String[] parts = spec.split("[:/]");
+    String type = parts[0].trim().toLowerCase();
+    if (type.equals("ratio") && parts.length == 2) {
+      return SamplingPolicy.ratio(Double.parseDouble(parts[1].trim()));
+    }
+    if ((type.equals("rate") || type.equals("first")) && parts.length == 3) {
+      int count = Integer.parseInt(parts[1].trim());
+      Duration period = DurationStyle.detectAndParse(parts[2].trim());
+      return type.equals("rate") ? SamplingPolicy.rateLimit(count, period) : SamplingPolicy.firstN(count, period);
+    }
+    throw new IllegalArgumentException("Invalid logging.sampling policy for " + eventName + ": " + spec);
+  }
+
+  private WaitStrategy createWaitStrategy(String name) {
+    return switch (name.toLowerCase()) {
+      case "busy-spin" -> new BusySpinWaitStrategy();
+      case "yielding" -> new YieldingWaitStrategy();
+      case "blocking" -> new BlockingWaitStrategy();
+      case "phased-backoff" -> new PhasedBackoffWaitStrategy();
+      default -> throw new IllegalArgumentException("Unknown logging.async.wait-strategy: " + name);
+    };
+  }
+
 }
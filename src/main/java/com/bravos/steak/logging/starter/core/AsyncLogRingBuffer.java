@@ -1,43 +1,65 @@
 package com.bravos.steak.logging.starter.core;
 
+import com.bravos.steak.logging.starter.core.wait.PhasedBackoffWaitStrategy;
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
 import com.bravos.steak.logging.starter.model.EventLog;
 import lombok.Getter;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.LockSupport;
 
 /**
  * Lock-free ring buffer (LMAX Disruptor pattern) for async log event appending.
  * Provides high-throughput, low-latency logging with minimal garbage collection.
+ * Sequencing is done by a {@link RingSequencer}; slots are pre-allocated {@link LogEvent}s.
  */
 public final class AsyncLogRingBuffer {
 
   private static final int DEFAULT_BUFFER_SIZE = 1024 * 16; // 16K entries, must be power of 2
 
   private final LogEvent[] buffer;
-  private final int bufferSize;
-  private final int indexMask;
-
-  private final AtomicLong producerSequence = new AtomicLong(-1);
-  private final AtomicLong consumerSequence = new AtomicLong(-1);
-
-  private final LogEventConsumer consumer;
-  private final Thread consumerThread;
-  private volatile boolean running = true;
+  private final RingSequencer sequencer;
+  private final LogEventProcessor processor;
 
   public AsyncLogRingBuffer(LogEventConsumer consumer) {
     this(DEFAULT_BUFFER_SIZE, consumer);
   }
 
   public AsyncLogRingBuffer(int bufferSize, LogEventConsumer consumer) {
-    if ((bufferSize & (bufferSize - 1)) != 0) {
-      throw new IllegalArgumentException("Buffer size must be a power of 2");
-    }
-    this.bufferSize = bufferSize;
-    this.indexMask = bufferSize - 1;
+    this(bufferSize, consumer, new PhasedBackoffWaitStrategy(), ConsumerThreadMode.PLATFORM);
+  }
+
+  public AsyncLogRingBuffer(int bufferSize,
+                            LogEventConsumer consumer,
+                            WaitStrategy waitStrategy,
+                            ConsumerThreadMode threadMode) {
+    this(bufferSize, (event, _, _) -> consumer.onEvent(event), waitStrategy, threadMode);
+  }
+
+  /**
+   * Creates a ring buffer with its own consumer thread.
+   */
+  public AsyncLogRingBuffer(int bufferSize,
+                            LogEventHandler handler,
+                            WaitStrategy waitStrategy,
+                            ConsumerThreadMode threadMode) {
+    this(bufferSize, waitStrategy, handler, threadMode);
+  }
+
+  /**
+   * Creates a ring buffer without a consumer thread.
+   * Events are drained by a {@link LogEventProcessor} shared with other buffers.
+   */
+  public AsyncLogRingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+    this(bufferSize, waitStrategy, null, null);
+  }
+
+  private AsyncLogRingBuffer(int bufferSize,
+                             WaitStrategy waitStrategy,
+                             LogEventHandler handler,
+                             ConsumerThreadMode threadMode) {
+    this.sequencer = new RingSequencer(bufferSize, waitStrategy);
     this.buffer = new LogEvent[bufferSize];
-    this.consumer = consumer;
 
     // Pre-allocate all LogEvent objects (zero-allocation during runtime)
     for (int i = 0; i < bufferSize; i++) {
@@ -45,9 +67,13 @@ public final class AsyncLogRingBuffer {
     }
 
     // Start consumer thread
-    this.consumerThread = Thread.ofVirtual()
-        .name("async-log-consumer")
-        .start(this::consumeLoop);
+    if (handler != null) {
+      this.processor = new LogEventProcessor(
+          new AsyncLogRingBuffer[]{this}, handler, waitStrategy, threadMode, false);
+      this.processor.start();
+    } else {
+      this.processor = null;
+    }
   }
 
   /**
@@ -68,91 +94,80 @@ public final class AsyncLogRingBuffer {
       long timestamp,
       Class<?> sourceClass
   ) {
-    long currentProducer;
-    long nextSequence;
-
-    do {
-      currentProducer = producerSequence.get();
-      nextSequence = currentProducer + 1;
-
-      // Check if buffer is full
-      long wrapPoint = nextSequence - bufferSize;
-      if (wrapPoint > consumerSequence.get()) {
-        // Buffer full - apply backpressure strategy (drop)
-        return false;
-      }
-    } while (!producerSequence.compareAndSet(currentProducer, nextSequence));
+    long sequence = tryNext();
+    if (sequence < 0) {
+      return false;
+    }
+    get(sequence).set(id, traceId, level, eventName, message, service, throwable, metadata, timestamp, sourceClass);
+    publish(sequence);
+    return true;
+  }
 
-    // Claim the slot and populate
-    int index = (int) (nextSequence & indexMask);
-    LogEvent event = buffer[index];
-    event.set(id, traceId, level, eventName, message, service, throwable, metadata, timestamp, sourceClass);
-    event.markPublished();
+  // ==================== CLAIM / COMMIT ====================
 
-    return true;
+  /**
+   * Claims the next slot. Write it through {@link #get(long)}, then {@link #publish(long)} it.
+   *
+   * @return the claimed sequence, or -1 if the buffer is full
+   */
+  public long tryNext() {
+    return tryNext(1);
   }
 
-  private void consumeLoop() {
-    long nextSequence = 0;
-    while (running) {
-      long availableSequence = producerSequence.get();
-
-      if (nextSequence <= availableSequence) {
-        // Process available events
-        while (nextSequence <= availableSequence) {
-          int index = (int) (nextSequence & indexMask);
-          LogEvent event = buffer[index];
-
-          // Wait for the event to be fully published
-          while (!event.isPublished()) {
-            Thread.onSpinWait();
-          }
-
-          try {
-            consumer.onEvent(event);
-          } catch (Exception e) {
-            // Log consumer error but continue processing
-            System.err.println("Error consuming log event: " + e.getMessage());
-          }
-
-          event.reset();
-          nextSequence++;
-        }
-        consumerSequence.set(nextSequence - 1);
-      } else {
-        // No events available - park briefly
-        LockSupport.parkNanos(100_000L); // 100 microseconds
-      }
-    }
+  /**
+   * Claims {@code n} contiguous slots with a single CAS.
+   * Every claimed slot must be written through {@link #get(long)} and then published with
+   * {@link #publish(long, long)}; the consumer stops at the first unpublished slot.
+   *
+   * @param n number of slots to claim, between 1 and the buffer size
+   * @return the highest claimed sequence (the range is {@code hi - n + 1 .. hi}), or -1 if fewer than
+   * {@code n} slots are free
+   */
+  public long tryNext(int n) {
+    return sequencer.tryNext(n);
+  }
+
+  /**
+   * @return the pre-allocated slot for a sequence. Producers may only write slots they claimed
+   * and have not yet published.
+   */
+  public LogEvent get(long sequence) {
+    return buffer[sequencer.index(sequence)];
+  }
 
-    // Drain remaining events on shutdown
-    drainRemaining(nextSequence);
+  /**
+   * Makes a claimed and written slot visible to the consumer.
+   */
+  public void publish(long sequence) {
+    sequencer.publish(sequence);
   }
 
-  private void drainRemaining(long nextSequence) {
-    long availableSequence = producerSequence.get();
-    while (nextSequence <= availableSequence) {
-      int index = (int) (nextSequence & indexMask);
-      LogEvent event = buffer[index];
-      if (event.isPublished()) {
-        try {
-          consumer.onEvent(event);
-        } catch (Exception e) {
-          System.err.println("Error draining log event: " + e.getMessage());
-        }
-        event.reset();
-      }
-      nextSequence++;
-    }
+  /**
+   * Makes a claimed and written range of slots visible to the consumer, signalling it once.
+   */
+  public void publish(long lo, long hi) {
+    sequencer.publish(lo, hi);
+  }
+
+  // ==================== DROP OLDEST ====================
+
+  /**
+   * @return number of events discarded by the consumer for producers that found the buffer full,
+   * see {@link RingSequencer#requestEviction()}
+   */
+  public long getEvictedCount() {
+    return sequencer.getEvictedCount();
+  }
+
+  // ==================== CONSUMER ACCESS ====================
+
+  RingSequencer sequencer() {
+    return sequencer;
   }
 
   public void shutdown() {
-    running = false;
-    LockSupport.unpark(consumerThread);
-    try {
-      consumerThread.join(5000);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+    if (processor != null) {
+      processor.shutdown();
     }
   }
 
@@ -160,6 +175,12 @@ public final class AsyncLogRingBuffer {
    * Pre-allocated log event for zero-allocation logging.
    */
   public static final class LogEvent {
+
+    /**
+     * Arguments a slot can hold for deferred formatting; calls with more are formatted eagerly.
+     */
+    public static final int MAX_DEFERRED_ARGUMENTS = 8;
+
     // Getters for consumer access
     @Getter
     private long id;
@@ -179,11 +200,43 @@ public final class AsyncLogRingBuffer {
     private Map<String, Object> metadata;
     @Getter
     private long timestamp;
+    /**
+     * Nanoseconds within {@link #timestamp}'s millisecond, negative if the clock does not provide them.
+     */
+    @Getter
+    private int timestampNanos;
     @Getter
     private Class<?> sourceClass;
-    private volatile boolean published;
+    /**
+     * False if {@link #traceId} was generated for this event alone, outside any request, job or {@code LogContext}.
+     */
+    @Getter
+    private boolean scopedTrace;
+    /**
+     * Exception trace of an event replayed without its original throwable.
+     */
+    private String exceptionTrace;
+    /**
+     * Fields of the {@code LogContext} the event was logged in.
+     */
+    @Getter
+    private Map<String, Object> context;
+    /**
+     * Structured fields of a {@link LogEventBuilder} event, allocated by the first such event and reused.
+     */
+    private KeyValues keyValues;
+    /**
+     * Snapshot of the arguments when {@link #message} is a pattern still to be formatted.
+     */
+    private Object[] arguments;
+    @Getter
+    private int argumentCount;
+    /**
+     * Buffer strategy of the factory that logged the event, used to format {@link #arguments}.
+     */
+    private FormatBufferStrategy formatBufferStrategy;
 
-    void set(
+    public void set(
         long id,
         String traceId,
         String level,
@@ -205,24 +258,100 @@ public final class AsyncLogRingBuffer {
       this.metadata = metadata;
       this.timestamp = timestamp;
       this.sourceClass = sourceClass;
+      this.scopedTrace = true;
+      this.exceptionTrace = null;
+      this.context = null;
+      this.timestampNanos = -1;
+      this.argumentCount = 0;
+      if (keyValues != null) {
+        keyValues.clear();
+      }
+    }
+
+    /**
+     * Stores a snapshot of the arguments so the message pattern is formatted on the consumer thread.
+     *
+     * @param argumentCount number of arguments to use, at most {@link #MAX_DEFERRED_ARGUMENTS}
+     * @param strategy      buffers for the snapshot and the later formatting
+     */
+    void setArguments(Object[] arguments, int argumentCount, FormatBufferStrategy strategy) {
+      if (this.arguments == null) {
+        this.arguments = new Object[MAX_DEFERRED_ARGUMENTS];
+      }
+      for (int i = 0; i < argumentCount; i++) {
+        this.arguments[i] = LogMessageFormatter.snapshot(strategy, arguments[i]);
+      }
+      this.argumentCount = argumentCount;
+      this.formatBufferStrategy = strategy;
+    }
+
+    /**
+     * Replaces the pattern with a note on why its arguments could not be captured, so the claimed slot can
+     * still be published.
+     */
+    void setFormatFailed(RuntimeException failure) {
+      if (arguments != null) {
+        Arrays.fill(arguments, null);
+      }
+      this.argumentCount = 0;
+      this.message = "Failed to format log message \"" + message + "\": " + failure;
     }
 
-    void markPublished() {
-      this.published = true;
+    /**
+     * @return the message, formatting a deferred pattern with its arguments first
+     */
+    public String formatMessage() {
+      return argumentCount > 0
+          ? LogMessageFormatter.format(formatBufferStrategy, message, arguments, argumentCount)
+          : message;
     }
 
-    boolean isPublished() {
-      return published;
+    void setExceptionTrace(String exceptionTrace) {
+      this.exceptionTrace = exceptionTrace;
+    }
+
+    void setScopedTrace(boolean scopedTrace) {
+      this.scopedTrace = scopedTrace;
+    }
+
+    void setContext(Map<String, Object> context) {
+      this.context = context;
+    }
+
+    /**
+     * Copies the fields into this slot's own columns; primitives stay unboxed until {@link #toEventLog()}.
+     */
+    void setKeyValues(KeyValues keyValues) {
+      if (this.keyValues == null) {
+        this.keyValues = new KeyValues();
+      }
+      this.keyValues.copyFrom(keyValues);
+    }
+
+    void setTimestampNanos(int timestampNanos) {
+      this.timestampNanos = timestampNanos;
+    }
+
+    void assignId(long id) {
+      this.id = id;
     }
 
     void reset() {
-      this.published = false;
       this.throwable = null;
       this.metadata = null;
+      this.exceptionTrace = null;
+      this.context = null;
+      if (keyValues != null) {
+        keyValues.clear();
+      }
+      if (argumentCount > 0) {
+        Arrays.fill(arguments, 0, argumentCount, null);
+        this.argumentCount = 0;
+      }
     }
 
     public EventLog toEventLog() {
-      String messageWithClass = "[" + traceId + "] [" + sourceClass.getSimpleName() + "] " + message;
+      String messageWithClass = "[" + traceId + "] [" + sourceClass.getSimpleName() + "] " + formatMessage();
       return EventLog.builder()
           .id(id)
           .traceId(traceId)
@@ -230,9 +359,11 @@ public final class AsyncLogRingBuffer {
           .eventName(eventName)
           .message(messageWithClass)
           .service(service)
-          .exceptionTrace(throwable != null ? throwable.toString() : null)
-          .metadata(metadata)
+          .exceptionTrace(throwable != null ? throwable.toString() : exceptionTrace)
+          .metadata(keyValues != null && !keyValues.isEmpty() ? keyValues.toMap(metadata) : metadata)
+          .context(context)
           .timestamp(timestamp)
+          .timestampNanos(timestampNanos >= 0 ? timestampNanos : null)
           .build();
     }
 
@@ -246,5 +377,27 @@ public final class AsyncLogRingBuffer {
     void onEvent(LogEvent event);
   }
 
+  /**
+   * Batch-aware handler for processing log events.
+   * The consumer thread delivers every event that was available when it woke up as one batch,
+   * so sinks can accumulate records and flush once when {@code endOfBatch} is true.
+   */
+  @FunctionalInterface
+  public interface LogEventHandler {
+
+    /**
+     * @param event      the event; only valid for the duration of the call
+     * @param sequence   the sequence of the event within its ring buffer
+     * @param endOfBatch true if this is the last event currently available
+     */
+    void onEvent(LogEvent event, long sequence, boolean endOfBatch);
+
+    /**
+     * Called once on the consumer thread after the remaining events were drained on shutdown.
+     */
+    default void onShutdown() {
+    }
+  }
+
 }
 
@@ -3,6 +3,8 @@ package com.bravos.steak.logging.starter.core;
 import com.bravos.steak.commonutils.shared.helper.DateTimeHelper;
 import com.bravos.steak.commonutils.shared.helper.Snowflake;
 import com.bravos.steak.logging.starter.annotation.MutateSensitiveData;
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.journal.AuditWriteAheadLog;
 import com.bravos.steak.logging.starter.model.AuditData;
 import com.bravos.steak.logging.starter.model.AuditLog;
 import lombok.AccessLevel;
@@ -13,8 +15,10 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.kafka.core.KafkaTemplate;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +46,16 @@ public class Audittor {
   final ObjectMapper objectMapper;
   final String auditLogTopic = "audit.log";
 
+  /**
+   * Optional write-ahead log; when set, records are journaled before sending and acknowledged once Kafka confirms.
+   */
+  final AuditWriteAheadLog writeAheadLog;
+
+  /**
+   * Source of record timestamps; the system clock if not set.
+   */
+  final LogClock clock;
+
   private final MutateSensitiveHelper mutateSensitiveHelper = new MutateSensitiveHelper(this);
 
   public void audit(AuditData auditData,
@@ -59,6 +73,85 @@ public class Audittor {
     audit(auditData, null, null, null);
   }
 
+  private long currentTimeMillis() {
+    return clock != null ? clock.currentTimeMillis() : DateTimeHelper.currentTimeMillis();
+  }
+
+  /**
+   * Re-sends every record left unacknowledged in the write-ahead log by a previous run.
+   *
+   * @return the number of replayed records
+   */
+  public int replayWriteAheadLog() {
+    if (writeAheadLog == null) return 0;
+    try {
+      return writeAheadLog.replay(this::sendAndAcknowledge);
+    } catch (IOException | IllegalStateException e) {
+      System.err.println("Failed to replay audit write-ahead log: " + e.getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Runs {@link #replayWriteAheadLog()} on a background thread, since sends can block while Kafka is unreachable.
+   */
+  public void startWriteAheadLogReplay() {
+    if (writeAheadLog == null) return;
+    Thread.ofVirtual()
+        .name("audit-wal-replay")
+        .start(this::replayWriteAheadLog);
+  }
+
+  private void send(AuditLog auditLog) {
+    if (writeAheadLog == null) {
+      kafkaTemplate.send(auditLogTopic, auditLog);
+      return;
+    }
+    long ticket;
+    try {
+      ticket = writeAheadLog.append(auditLog);
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Failed to write audit log to write-ahead log: " + e.getMessage());
+      kafkaTemplate.send(auditLogTopic, auditLog);
+      return;
+    }
+    sendAndAcknowledge(auditLog, ticket);
+  }
+
+  private void sendAndAcknowledge(AuditLog auditLog, long ticket) {
+    CompletableFuture<?> sent;
+    try {
+      sent = kafkaTemplate.send(auditLogTopic, auditLog);
+    } catch (RuntimeException e) {
+      // E.g. metadata unavailable within max.block.ms; the record stays in the write-ahead log
+      System.err.println("Failed to send audit log to Kafka: " + e.getMessage());
+      return;
+    }
+    sent.whenComplete((_, ex) -> {
+      if (ex != null) {
+        // Stays in the write-ahead log and is replayed on the next start
+        System.err.println("Failed to send audit log to Kafka: " + ex.getMessage());
+        return;
+      }
+      writeAheadLog.acknowledge(ticket);
+    });
+  }
+
+  public void shutdown() {
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+        executorService.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executorService.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    if (writeAheadLog != null) {
+      writeAheadLog.shutdown();
+    }
+  }
+
   private record MutateSensitiveHelper(Audittor audittor) {
 
     @MutateSensitiveData
@@ -88,9 +181,9 @@ public class Audittor {
           .message(auditData.getMessage())
           .success(auditData.getSuccess())
           .reason(auditData.getReason())
-          .timestamp(DateTimeHelper.currentTimeMillis())
+          .timestamp(audittor.currentTimeMillis())
           .build();
-      audittor.kafkaTemplate.send(audittor.auditLogTopic, auditLog);
+      audittor.send(auditLog);
     }
 
     @MutateSensitiveData
@@ -108,9 +201,9 @@ public class Audittor {
           .message(auditData.getMessage())
           .success(auditData.getSuccess())
           .reason(auditData.getReason())
-          .timestamp(DateTimeHelper.currentTimeMillis())
+          .timestamp(audittor.currentTimeMillis())
           .build();
-      audittor.kafkaTemplate.send(audittor.auditLogTopic, auditLog);
+      audittor.send(auditLog);
     }
 
     private String checkAndConvertSensitiveDataToString(SensitiveData sensitiveData) {
@@ -0,0 +1,66 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts how many events each {@link BackpressurePolicy} affected.
+ */
+public final class BackpressureCounters {
+
+  final LongAdder blocked = new LongAdder();
+  final LongAdder blockTimeouts = new LongAdder();
+  final LongAdder dropOldestTimeouts = new LongAdder();
+  final LongAdder droppedNewest = new LongAdder();
+  final LongAdder callerRuns = new LongAdder();
+  private final LongSupplier evictedOldest;
+
+  BackpressureCounters(LongSupplier evictedOldest) {
+    this.evictedOldest = evictedOldest;
+  }
+
+  /**
+   * @return events that waited for capacity under {@link BackpressurePolicy#BLOCK} and were published
+   */
+  public long getBlocked() {
+    return blocked.sum();
+  }
+
+  /**
+   * @return events dropped because no capacity freed up within the timeout under {@link BackpressurePolicy#BLOCK}
+   */
+  public long getBlockTimeouts() {
+    return blockTimeouts.sum();
+  }
+
+  /**
+   * @return events dropped under {@link BackpressurePolicy#DROP_OLDEST} because no slot could be claimed
+   * within the timeout, even if an older event was evicted for them meanwhile
+   */
+  public long getDropOldestTimeouts() {
+    return dropOldestTimeouts.sum();
+  }
+
+  /**
+   * @return events dropped immediately under {@link BackpressurePolicy#DROP_NEWEST}; events the overflow
+   * journal took instead are counted as journaled only
+   */
+  public long getDroppedNewest() {
+    return droppedNewest.sum();
+  }
+
+  /**
+   * @return queued events discarded by the consumer to make room under {@link BackpressurePolicy#DROP_OLDEST}
+   */
+  public long getEvictedOldest() {
+    return evictedOldest.getAsLong();
+  }
+
+  /**
+   * @return events sent synchronously on the caller thread under {@link BackpressurePolicy#CALLER_RUNS}
+   */
+  public long getCallerRuns() {
+    return callerRuns.sum();
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * What a producer does when its ring buffer shard is full.
+ */
+public enum BackpressurePolicy {
+
+  /**
+   * Wait for free capacity up to the configured timeout, then drop the event.
+   */
+  BLOCK,
+
+  /**
+   * Drop the event being published immediately.
+   */
+  DROP_NEWEST,
+
+  /**
+   * Ask the consumer to discard the oldest unconsumed event and take its place.
+   * Falls back to dropping the new event if no slot frees up within the configured timeout.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Send the event synchronously on the calling thread, bypassing the ring buffer.
+   */
+  CALLER_RUNS
+
+}
@@ -0,0 +1,19 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Kind of thread that runs the ring buffer consumer loop.
+ */
+public enum ConsumerThreadMode {
+
+  /**
+   * Virtual thread. Cheap to create, but spinning wait strategies keep its carrier busy,
+   * so pair it with {@link com.bravos.steak.logging.starter.core.wait.BlockingWaitStrategy}.
+   */
+  VIRTUAL,
+
+  /**
+   * Dedicated daemon platform thread. Required for microsecond-level handoff with spinning strategies.
+   */
+  PLATFORM
+
+}
@@ -0,0 +1,347 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Encodes an event as {@link com.bravos.steak.logging.starter.model.EventLog} JSON directly into a
+ * {@link MemorySegment}, without building intermediate objects.
+ * <p>
+ * Every write takes the current position and the exclusive limit of the slot and returns the new
+ * position, or -1 once the slot has overflowed; -1 propagates through all later writes.
+ */
+final class EventLogJsonEncoder {
+
+  private static final String TRUNCATED_MARKER = "...(truncated)";
+  private static final int BOUNDED_FIELD_BYTES = 64;
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private EventLogJsonEncoder() {
+  }
+
+  /**
+   * Encodes the full event.
+   *
+   * @return the end position, or -1 if the event does not fit
+   */
+  static long encode(MemorySegment segment, long position, long limit,
+                     long id, String traceId, String level, String eventName, String message, String service,
+                     String exceptionTrace, Map<String, Object> metadata, KeyValues keyValues,
+                     Map<String, Object> context, long timestamp, int timestampNanos, Class<?> sourceClass) {
+    long pos = position;
+    pos = writeAscii(segment, pos, limit, "{\"id\":");
+    pos = writeLong(segment, pos, limit, id);
+    pos = writeAscii(segment, pos, limit, ",\"traceId\":");
+    pos = writeString(segment, pos, limit, traceId);
+    pos = writeAscii(segment, pos, limit, ",\"level\":");
+    pos = writeString(segment, pos, limit, level);
+    pos = writeAscii(segment, pos, limit, ",\"eventName\":");
+    pos = writeString(segment, pos, limit, eventName);
+    pos = writeAscii(segment, pos, limit, ",\"message\":\"");
+    pos = writeMessagePrefix(segment, pos, limit, traceId, sourceClass);
+    pos = writeEscaped(segment, pos, limit, message);
+    pos = writeAscii(segment, pos, limit, "\",\"service\":");
+    pos = writeString(segment, pos, limit, service);
+    pos = writeAscii(segment, pos, limit, ",\"exceptionTrace\":");
+    pos = writeString(segment, pos, limit, exceptionTrace);
+    pos = writeAscii(segment, pos, limit, ",\"metadata\":");
+    pos = writeMetadata(segment, pos, limit, metadata, keyValues);
+    pos = writeAscii(segment, pos, limit, ",\"context\":");
+    pos = writeMetadata(segment, pos, limit, context, null);
+    pos = writeAscii(segment, pos, limit, ",\"timestamp\":");
+    pos = writeLong(segment, pos, limit, timestamp);
+    pos = writeTimestampNanos(segment, pos, limit, timestampNanos);
+    return writeByte(segment, pos, limit, '}');
+  }
+
+  /**
+   * Encodes the event without metadata, context and exception trace, cutting strings so that it always fits.
+   * The message gets a {@value #TRUNCATED_MARKER} suffix. Requires a slot of at least
+   * {@link OffHeapLogRingBuffer#MIN_SLOT_SIZE} bytes.
+   *
+   * @return the end position
+   */
+  static long encodeTruncated(MemorySegment segment, long position, long limit,
+                              long id, String traceId, String level, String eventName, String message,
+                              String service, long timestamp, int timestampNanos, Class<?> sourceClass) {
+    long pos = position;
+    pos = writeAscii(segment, pos, limit, "{\"id\":");
+    pos = writeLong(segment, pos, limit, id);
+    pos = writeAscii(segment, pos, limit, ",\"traceId\":\"");
+    pos = writeEscapedBounded(segment, pos, pos + BOUNDED_FIELD_BYTES, traceId);
+    pos = writeAscii(segment, pos, limit, "\",\"level\":");
+    pos = writeString(segment, pos, limit, level);
+    pos = writeAscii(segment, pos, limit, ",\"eventName\":\"");
+    pos = writeEscapedBounded(segment, pos, pos + BOUNDED_FIELD_BYTES, eventName);
+    pos = writeAscii(segment, pos, limit, "\",\"service\":\"");
+    pos = writeEscapedBounded(segment, pos, pos + BOUNDED_FIELD_BYTES, service);
+    pos = writeAscii(segment, pos, limit, "\",\"exceptionTrace\":null,\"metadata\":null,\"context\":null,\"timestamp\":");
+    pos = writeLong(segment, pos, limit, timestamp);
+    pos = writeTimestampNanos(segment, pos, limit, timestampNanos);
+    pos = writeAscii(segment, pos, limit, ",\"message\":\"");
+    long messageLimit = limit - TRUNCATED_MARKER.length() - 2;
+    long prefixEnd = writeMessagePrefix(segment, pos, messageLimit, traceId, sourceClass);
+    if (prefixEnd >= 0) {
+      pos = writeEscapedBounded(segment, prefixEnd, messageLimit, message);
+    }
+    pos = writeAscii(segment, pos, limit, TRUNCATED_MARKER);
+    return writeAscii(segment, pos, limit, "\"}");
+  }
+
+  private static long writeTimestampNanos(MemorySegment segment, long pos, long limit, int timestampNanos) {
+    pos = writeAscii(segment, pos, limit, ",\"timestampNanos\":");
+    return timestampNanos < 0
+        ? writeAscii(segment, pos, limit, "null")
+        : writeLong(segment, pos, limit, timestampNanos);
+  }
+
+  private static long writeMessagePrefix(MemorySegment segment, long pos, long limit,
+                                         String traceId, Class<?> sourceClass) {
+    pos = writeByte(segment, pos, limit, '[');
+    pos = writeEscaped(segment, pos, limit, traceId);
+    pos = writeAscii(segment, pos, limit, "] [");
+    pos = writeEscaped(segment, pos, limit, sourceClass.getSimpleName());
+    return writeAscii(segment, pos, limit, "] ");
+  }
+
+  /**
+   * Writes the map entries followed by the structured fields, which are read straight from their columns.
+   */
+  private static long writeMetadata(MemorySegment segment, long pos, long limit,
+                                    Map<String, Object> metadata, KeyValues keyValues) {
+    boolean hasKeyValues = keyValues != null && !keyValues.isEmpty();
+    if (metadata == null && !hasKeyValues) {
+      return writeAscii(segment, pos, limit, "null");
+    }
+    pos = writeByte(segment, pos, limit, '{');
+    boolean first = true;
+    if (metadata != null) {
+      for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+        if (!first) {
+          pos = writeByte(segment, pos, limit, ',');
+        }
+        first = false;
+        pos = writeString(segment, pos, limit, entry.getKey());
+        pos = writeByte(segment, pos, limit, ':');
+        pos = writeValue(segment, pos, limit, entry.getValue());
+        if (pos < 0) {
+          return -1;
+        }
+      }
+    }
+    if (hasKeyValues) {
+      for (int i = 0; i < keyValues.size(); i++) {
+        if (!first) {
+          pos = writeByte(segment, pos, limit, ',');
+        }
+        first = false;
+        pos = writeString(segment, pos, limit, keyValues.key(i));
+        pos = writeByte(segment, pos, limit, ':');
+        pos = switch (keyValues.type(i)) {
+          case KeyValues.TYPE_LONG -> writeLong(segment, pos, limit, keyValues.longValue(i));
+          case KeyValues.TYPE_DOUBLE -> writeDouble(segment, pos, limit, keyValues.doubleValue(i));
+          case KeyValues.TYPE_BOOLEAN -> writeAscii(segment, pos, limit, keyValues.booleanValue(i) ? "true" : "false");
+          default -> writeValue(segment, pos, limit, keyValues.objectValue(i));
+        };
+        if (pos < 0) {
+          return -1;
+        }
+      }
+    }
+    return writeByte(segment, pos, limit, '}');
+  }
+
+  private static long writeDouble(MemorySegment segment, long pos, long limit, double value) {
+    String text = Double.toString(value);
+    // NaN and infinities are not valid JSON numbers
+    return Double.isFinite(value) ? writeAscii(segment, pos, limit, text) : writeString(segment, pos, limit, text);
+  }
+
+  /**
+   * Writes scalars natively; any other value is written as its {@code toString()}.
+   */
+  private static long writeValue(MemorySegment segment, long pos, long limit, Object value) {
+    return switch (value) {
+      case null -> writeAscii(segment, pos, limit, "null");
+      case String s -> writeString(segment, pos, limit, s);
+      case Long l -> writeLong(segment, pos, limit, l);
+      case Integer i -> writeLong(segment, pos, limit, i);
+      case Short s -> writeLong(segment, pos, limit, s);
+      case Byte b -> writeLong(segment, pos, limit, b);
+      case Boolean b -> writeAscii(segment, pos, limit, b ? "true" : "false");
+      case Double d when !d.isNaN() && !d.isInfinite() -> writeAscii(segment, pos, limit, d.toString());
+      case Float f when !f.isNaN() && !f.isInfinite() -> writeAscii(segment, pos, limit, f.toString());
+      default -> writeString(segment, pos, limit, String.valueOf(value));
+    };
+  }
+
+  // ==================== PRIMITIVES ====================
+
+  static long writeByte(MemorySegment segment, long pos, long limit, int b) {
+    if (pos < 0 || pos >= limit) {
+      return -1;
+    }
+    segment.set(ValueLayout.JAVA_BYTE, pos, (byte) b);
+    return pos + 1;
+  }
+
+  /**
+   * Writes a string known to contain only ASCII characters that need no escaping.
+   */
+  static long writeAscii(MemorySegment segment, long pos, long limit, String s) {
+    if (pos < 0 || pos + s.length() > limit) {
+      return -1;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      segment.set(ValueLayout.JAVA_BYTE, pos++, (byte) s.charAt(i));
+    }
+    return pos;
+  }
+
+  static long writeLong(MemorySegment segment, long pos, long limit, long value) {
+    if (value == Long.MIN_VALUE) {
+      return writeAscii(segment, pos, limit, Long.toString(value));
+    }
+    if (value < 0) {
+      pos = writeByte(segment, pos, limit, '-');
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+    if (pos < 0 || pos + digits > limit) {
+      return -1;
+    }
+    for (long p = pos + digits - 1; p >= pos; p--) {
+      segment.set(ValueLayout.JAVA_BYTE, p, (byte) ('0' + value % 10));
+      value /= 10;
+    }
+    return pos + digits;
+  }
+
+  /**
+   * Writes a quoted, escaped JSON string, or {@code null}.
+   */
+  static long writeString(MemorySegment segment, long pos, long limit, String s) {
+    if (s == null) {
+      return writeAscii(segment, pos, limit, "null");
+    }
+    pos = writeByte(segment, pos, limit, '"');
+    pos = writeEscaped(segment, pos, limit, s);
+    return writeByte(segment, pos, limit, '"');
+  }
+
+  /**
+   * Writes the escaped UTF-8 content of a JSON string, without quotes. A null string writes nothing.
+   */
+  static long writeEscaped(MemorySegment segment, long pos, long limit, String s) {
+    if (s == null || pos < 0) {
+      return pos;
+    }
+    for (int i = 0; i < s.length() && pos >= 0; i++) {
+      char c = s.charAt(i);
+      if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        pos = writeCodePoint(segment, pos, limit, Character.toCodePoint(c, s.charAt(++i)));
+      } else {
+        pos = writeChar(segment, pos, limit, c);
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Like {@link #writeEscaped} but stops before the first character that would cross {@code limit}.
+   *
+   * @return the end position, never -1 for a valid start position
+   */
+  static long writeEscapedBounded(MemorySegment segment, long pos, long limit, String s) {
+    if (s == null || pos < 0) {
+      return pos;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      long next;
+      if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        next = writeCodePoint(segment, pos, limit, Character.toCodePoint(c, s.charAt(i + 1)));
+        if (next >= 0) {
+          i++;
+        }
+      } else {
+        next = writeChar(segment, pos, limit, c);
+      }
+      if (next < 0) {
+        return pos;
+      }
+      pos = next;
+    }
+    return pos;
+  }
+
+  private static long writeChar(MemorySegment segment, long pos, long limit, char c) {
+    switch (c) {
+      case '"' -> {
+        return writeAscii(segment, pos, limit, "\\\"");
+      }
+      case '\\' -> {
+        return writeAscii(segment, pos, limit, "\\\\");
+      }
+      case '\n' -> {
+        return writeAscii(segment, pos, limit, "\\n");
+      }
+      case '\r' -> {
+        return writeAscii(segment, pos, limit, "\\r");
+      }
+      case '\t' -> {
+        return writeAscii(segment, pos, limit, "\\t");
+      }
+      default -> {
+        if (c < 0x20 || Character.isSurrogate(c)) {
+          // Control characters and unpaired surrogates are written as \\uXXXX escapes
+          if (pos < 0 || pos + 6 > limit) {
+            return -1;
+          }
+          segment.set(ValueLayout.JAVA_BYTE, pos, (byte) '\\');
+          segment.set(ValueLayout.JAVA_BYTE, pos + 1, (byte) 'u');
+          segment.set(ValueLayout.JAVA_BYTE, pos + 2, HEX[(c >> 12) & 0xF]);
+          segment.set(ValueLayout.JAVA_BYTE, pos + 3, HEX[(c >> 8) & 0xF]);
+          segment.set(ValueLayout.JAVA_BYTE, pos + 4, HEX[(c >> 4) & 0xF]);
+          segment.set(ValueLayout.JAVA_BYTE, pos + 5, HEX[c & 0xF]);
+          return pos + 6;
+        }
+        return writeCodePoint(segment, pos, limit, c);
+      }
+    }
+  }
+
+  private static long writeCodePoint(MemorySegment segment, long pos, long limit, int codePoint) {
+    if (codePoint < 0x80) {
+      return writeByte(segment, pos, limit, codePoint);
+    }
+    int length = codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    if (pos < 0 || pos + length > limit) {
+      return -1;
+    }
+    switch (length) {
+      case 2 -> {
+        segment.set(ValueLayout.JAVA_BYTE, pos, (byte) (0xC0 | (codePoint >> 6)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 1, (byte) (0x80 | (codePoint & 0x3F)));
+      }
+      case 3 -> {
+        segment.set(ValueLayout.JAVA_BYTE, pos, (byte) (0xE0 | (codePoint >> 12)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 1, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 2, (byte) (0x80 | (codePoint & 0x3F)));
+      }
+      default -> {
+        segment.set(ValueLayout.JAVA_BYTE, pos, (byte) (0xF0 | (codePoint >> 18)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 1, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 2, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        segment.set(ValueLayout.JAVA_BYTE, pos + 3, (byte) (0x80 | (codePoint & 0x3F)));
+      }
+    }
+    return pos + length;
+  }
+
+}
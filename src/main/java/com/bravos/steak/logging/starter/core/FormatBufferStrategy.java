@@ -0,0 +1,25 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Where {@link LogMessageFormatter} gets its reusable {@link StringBuilder}s from.
+ */
+public enum FormatBufferStrategy {
+
+  /**
+   * One builder per thread. Cheapest for long-lived platform threads, but every virtual thread
+   * allocates and then drops its own builder.
+   */
+  THREAD_LOCAL,
+
+  /**
+   * Small pool of builders striped by thread id, shared by all threads. Stays bounded however
+   * many virtual threads log; a thread that finds its stripes busy formats into a fresh builder.
+   */
+  STRIPED,
+
+  /**
+   * {@link #THREAD_LOCAL} on platform threads, {@link #STRIPED} on virtual threads.
+   */
+  ADAPTIVE
+
+}
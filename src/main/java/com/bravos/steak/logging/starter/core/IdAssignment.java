@@ -0,0 +1,23 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Which thread takes event IDs from the shared {@code Snowflake}.
+ * Both modes give unique IDs; they differ in what the ID order reflects.
+ */
+public enum IdAssignment {
+
+  /**
+   * The logging thread, before the event is published. IDs follow call order, but every log call
+   * contends on the generator.
+   */
+  CALLER,
+
+  /**
+   * The consumer thread, as the event is dequeued, so callers never touch the generator. IDs follow
+   * consumption order: call order within one ring buffer shard and lane, dequeue order across them
+   * (the timestamp is still taken at call time). Applies to {@link RingBufferMode#HEAP}; events
+   * sent by the caller or journaled under backpressure still get their ID on the caller.
+   */
+  CONSUMER
+
+}
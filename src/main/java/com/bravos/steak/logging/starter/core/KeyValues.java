@@ -0,0 +1,161 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reusable key/value storage for structured events: parallel arrays with separate primitive columns,
+ * so numbers and booleans are stored without boxing. Grows on demand and keeps its capacity when cleared.
+ * Not thread-safe; an instance is owned by one builder or one ring buffer slot.
+ */
+final class KeyValues {
+
+  static final byte TYPE_OBJECT = 0;
+  static final byte TYPE_LONG = 1;
+  static final byte TYPE_DOUBLE = 2;
+  static final byte TYPE_BOOLEAN = 3;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private String[] keys = new String[INITIAL_CAPACITY];
+  private byte[] types = new byte[INITIAL_CAPACITY];
+  private long[] longValues = new long[INITIAL_CAPACITY];
+  private double[] doubleValues = new double[INITIAL_CAPACITY];
+  private boolean[] booleanValues = new boolean[INITIAL_CAPACITY];
+  private Object[] objectValues = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  void add(String key, long value) {
+    int i = next(key, TYPE_LONG);
+    longValues[i] = value;
+  }
+
+  void add(String key, double value) {
+    int i = next(key, TYPE_DOUBLE);
+    doubleValues[i] = value;
+  }
+
+  void add(String key, boolean value) {
+    int i = next(key, TYPE_BOOLEAN);
+    booleanValues[i] = value;
+  }
+
+  void add(String key, Object value) {
+    int i = next(key, TYPE_OBJECT);
+    objectValues[i] = value;
+  }
+
+  /**
+   * Replaces the contents with a copy of {@code other}, column by column.
+   */
+  void copyFrom(KeyValues other) {
+    clear();
+    ensureCapacity(other.size);
+    System.arraycopy(other.keys, 0, keys, 0, other.size);
+    System.arraycopy(other.types, 0, types, 0, other.size);
+    System.arraycopy(other.longValues, 0, longValues, 0, other.size);
+    System.arraycopy(other.doubleValues, 0, doubleValues, 0, other.size);
+    System.arraycopy(other.booleanValues, 0, booleanValues, 0, other.size);
+    System.arraycopy(other.objectValues, 0, objectValues, 0, other.size);
+    size = other.size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  String key(int i) {
+    return keys[i];
+  }
+
+  byte type(int i) {
+    return types[i];
+  }
+
+  long longValue(int i) {
+    return longValues[i];
+  }
+
+  double doubleValue(int i) {
+    return doubleValues[i];
+  }
+
+  boolean booleanValue(int i) {
+    return booleanValues[i];
+  }
+
+  Object objectValue(int i) {
+    return objectValues[i];
+  }
+
+  /**
+   * @return the index of the first entry with this key, or -1
+   */
+  int indexOf(String key) {
+    for (int i = 0; i < size; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the value at {@code i}, boxed
+   */
+  Object value(int i) {
+    return switch (types[i]) {
+      case TYPE_LONG -> longValues[i];
+      case TYPE_DOUBLE -> doubleValues[i];
+      case TYPE_BOOLEAN -> booleanValues[i];
+      default -> objectValues[i];
+    };
+  }
+
+  /**
+   * Builds a map of {@code base} plus these entries, which win on duplicate keys.
+   */
+  Map<String, Object> toMap(Map<String, Object> base) {
+    Map<String, Object> map = HashMap.newHashMap((base != null ? base.size() : 0) + size);
+    if (base != null) {
+      map.putAll(base);
+    }
+    for (int i = 0; i < size; i++) {
+      map.put(keys[i], value(i));
+    }
+    return map;
+  }
+
+  void clear() {
+    // Drop references so the slot does not keep values alive
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(objectValues, 0, size, null);
+    size = 0;
+  }
+
+  private int next(String key, byte type) {
+    ensureCapacity(size + 1);
+    keys[size] = key;
+    types[size] = type;
+    return size++;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= keys.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, keys.length * 2);
+    keys = Arrays.copyOf(keys, newCapacity);
+    types = Arrays.copyOf(types, newCapacity);
+    longValues = Arrays.copyOf(longValues, newCapacity);
+    doubleValues = Arrays.copyOf(doubleValues, newCapacity);
+    booleanValues = Arrays.copyOf(booleanValues, newCapacity);
+    objectValues = Arrays.copyOf(objectValues, newCapacity);
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Fluent builder for one structured event, obtained from {@link Logger#atInfo(String)} and its siblings.
+ * Fields go into reusable primitive columns, so {@code kv("orderId", 42L)} neither boxes the number
+ * nor allocates a map on the logging thread.
+ * <p>
+ * Builders are reused per thread: finish the chain with {@link #log()} in the same statement and
+ * do not keep a reference. A chain abandoned before {@code log()}, e.g. because an argument threw, is
+ * dropped by the thread's next chain. For a disabled level a shared no-op builder is returned; it never
+ * stores anything.
+ * <pre>{@code
+ * logger.atInfo("ORDER_CREATED")
+ *     .kv("orderId", 42L)
+ *     .kv("amount", 9.99)
+ *     .log("Order created");
+ * }</pre>
+ */
+public final class LogEventBuilder {
+
+  static final LogEventBuilder DISABLED = new LogEventBuilder();
+
+  private final KeyValues keyValues = new KeyValues();
+  private Logger logger;
+  private LogLevel level;
+  private String eventName;
+  private String message;
+  private Throwable throwable;
+
+  LogEventBuilder() {
+  }
+
+  LogEventBuilder start(Logger logger, LogLevel level, String eventName) {
+    reset();
+    this.logger = logger;
+    this.level = level;
+    this.eventName = eventName;
+    return this;
+  }
+
+  /**
+   * @return true while a chain is being built, so a nested log call on the same thread needs its own builder
+   */
+  boolean inUse() {
+    return logger != null;
+  }
+
+  public LogEventBuilder kv(String key, long value) {
+    if (logger != null) {
+      keyValues.add(key, value);
+    }
+    return this;
+  }
+
+  public LogEventBuilder kv(String key, double value) {
+    if (logger != null) {
+      keyValues.add(key, value);
+    }
+    return this;
+  }
+
+  public LogEventBuilder kv(String key, boolean value) {
+    if (logger != null) {
+      keyValues.add(key, value);
+    }
+    return this;
+  }
+
+  public LogEventBuilder kv(String key, Object value) {
+    if (logger != null) {
+      keyValues.add(key, value);
+    }
+    return this;
+  }
+
+  public LogEventBuilder message(String message) {
+    if (logger != null) {
+      this.message = message;
+    }
+    return this;
+  }
+
+  public LogEventBuilder cause(Throwable throwable) {
+    if (logger != null) {
+      this.throwable = throwable;
+    }
+    return this;
+  }
+
+  public void log(String message) {
+    if (logger != null) {
+      this.message = message;
+    }
+    log();
+  }
+
+  public void log() {
+    Logger target = logger;
+    if (target == null) {
+      return;
+    }
+    try {
+      target.logStructured(level, eventName, message != null ? message : "", throwable, keyValues);
+    } finally {
+      reset();
+    }
+  }
+
+  private void reset() {
+    logger = null;
+    level = null;
+    eventName = null;
+    message = null;
+    throwable = null;
+    keyValues.clear();
+  }
+
+}
@@ -0,0 +1,225 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Single consumer thread that drains one or more {@link AsyncLogRingBuffer}s into a
+ * {@link AsyncLogRingBuffer.LogEventHandler}.
+ * Every event available across all buffers when the consumer wakes up forms one batch.
+ */
+public final class LogEventProcessor {
+
+  private final AsyncLogRingBuffer[] ringBuffers;
+  private final int[] batchLimits;
+  private final AsyncLogRingBuffer.LogEventHandler handler;
+  private final WaitStrategy waitStrategy;
+  private final boolean timestampMerge;
+  private final Thread consumerThread;
+
+  private final long[] nextSequences;
+  private final long[] availableSequences;
+  /**
+   * Highest sequence of each buffer known to be published contiguously, so rescans start after it.
+   */
+  private final long[] publishedSequences;
+  private final LongSupplier publishedCursor = this::publishedCursor;
+  private final BooleanSupplier runningCheck = () -> this.running;
+  private volatile boolean running = true;
+
+  /**
+   * @param ringBuffers    the buffers to drain, all sharing {@code waitStrategy}
+   * @param handler        receives every event on the consumer thread
+   * @param waitStrategy   how to wait when all buffers are empty
+   * @param threadMode     kind of consumer thread
+   * @param timestampMerge if true, events of one batch are delivered in timestamp order across buffers
+   *                       instead of buffer by buffer
+   */
+  public LogEventProcessor(AsyncLogRingBuffer[] ringBuffers,
+                           AsyncLogRingBuffer.LogEventHandler handler,
+                           WaitStrategy waitStrategy,
+                           ConsumerThreadMode threadMode,
+                           boolean timestampMerge) {
+    this(ringBuffers, null, handler, waitStrategy, threadMode, timestampMerge);
+  }
+
+  /**
+   * Creates a processor that drains each buffer by weighted priority: a batch takes at most
+   * {@code batchLimits[i]} events from buffer {@code i}, so a flooded buffer cannot delay the others
+   * for longer than its share. Buffers listed first are delivered first within a batch.
+   *
+   * @param batchLimits maximum events taken from each buffer per batch, or null for no limit
+   */
+  public LogEventProcessor(AsyncLogRingBuffer[] ringBuffers,
+                           int[] batchLimits,
+                           AsyncLogRingBuffer.LogEventHandler handler,
+                           WaitStrategy waitStrategy,
+                           ConsumerThreadMode threadMode,
+                           boolean timestampMerge) {
+    if (ringBuffers.length == 0) {
+      throw new IllegalArgumentException("At least one ring buffer is required");
+    }
+    if (batchLimits != null && batchLimits.length != ringBuffers.length) {
+      throw new IllegalArgumentException("One batch limit per ring buffer is required");
+    }
+    this.ringBuffers = ringBuffers;
+    this.batchLimits = batchLimits;
+    this.handler = handler;
+    this.waitStrategy = waitStrategy;
+    this.timestampMerge = timestampMerge;
+    this.nextSequences = new long[ringBuffers.length];
+    this.availableSequences = new long[ringBuffers.length];
+    this.publishedSequences = new long[ringBuffers.length];
+    Arrays.fill(publishedSequences, -1);
+    this.consumerThread = switch (threadMode) {
+      case VIRTUAL -> Thread.ofVirtual()
+          .name("async-log-consumer")
+          .unstarted(this::consumeLoop);
+      case PLATFORM -> Thread.ofPlatform()
+          .name("async-log-consumer")
+          .daemon(true)
+          .unstarted(this::consumeLoop);
+    };
+  }
+
+  public void start() {
+    consumerThread.start();
+  }
+
+  /**
+   * Sum of the published sequences of all buffers, shifted so that a single buffer yields its own.
+   * Monotonic, so wait strategies can treat the group like one sequence. Claimed slots that are not
+   * published yet do not count, so the consumer keeps waiting instead of spinning on them.
+   */
+  private long publishedCursor() {
+    long total = 0;
+    for (int i = 0; i < ringBuffers.length; i++) {
+      total += publishedSequence(i) + 1;
+    }
+    return total - 1;
+  }
+
+  /**
+   * @return the highest sequence of buffer {@code i} up to which every slot is published
+   */
+  private long publishedSequence(int i) {
+    long published = ringBuffers[i].sequencer()
+        .highestPublishedSequence(Math.max(nextSequences[i], publishedSequences[i] + 1));
+    publishedSequences[i] = published;
+    return published;
+  }
+
+  private void consumeLoop() {
+    long nextTotal = 0;
+    while (running) {
+      long availableTotal = waitStrategy.waitFor(nextTotal, publishedCursor, runningCheck);
+      if (availableTotal >= nextTotal) {
+        nextTotal += drainBatch();
+      }
+    }
+
+    // Drain remaining events on shutdown
+    while (drainBatch() > 0) {
+      // keep draining until no published event is left
+    }
+    try {
+      handler.onShutdown();
+    } catch (Exception e) {
+      System.err.println("Error shutting down log event handler: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Delivers every currently published event as one batch.
+   *
+   * @return the number of events delivered or evicted
+   */
+  private int drainBatch() {
+    int remaining = 0;
+    int evicted = 0;
+    for (int i = 0; i < ringBuffers.length; i++) {
+      RingSequencer sequencer = ringBuffers[i].sequencer();
+      long available = publishedSequence(i);
+      availableSequences[i] = available;
+      // Discard the oldest events first if producers asked for room (drop-oldest backpressure)
+      long evictions = sequencer.takeEvictions(available - nextSequences[i] + 1);
+      if (evictions > 0) {
+        for (long e = 0; e < evictions; e++) {
+          ringBuffers[i].get(nextSequences[i]++).reset();
+        }
+        // Hand the evicted slots to the waiting producers now, not after this batch is delivered
+        sequencer.release(nextSequences[i] - 1);
+        evicted += (int) evictions;
+      }
+      if (batchLimits != null) {
+        available = Math.min(available, nextSequences[i] + batchLimits[i] - 1);
+        availableSequences[i] = available;
+      }
+      remaining += (int) (available - nextSequences[i] + 1);
+    }
+    if (remaining == 0) {
+      releaseAll();
+      return evicted;
+    }
+
+    final int batchSize = remaining + evicted;
+    if (timestampMerge && ringBuffers.length > 1) {
+      while (remaining > 0) {
+        int earliest = -1;
+        long earliestTimestamp = Long.MAX_VALUE;
+        for (int i = 0; i < ringBuffers.length; i++) {
+          if (nextSequences[i] <= availableSequences[i]) {
+            long timestamp = ringBuffers[i].get(nextSequences[i]).getTimestamp();
+            if (timestamp < earliestTimestamp) {
+              earliestTimestamp = timestamp;
+              earliest = i;
+            }
+          }
+        }
+        consume(ringBuffers[earliest], nextSequences[earliest]++, --remaining == 0);
+      }
+    } else {
+      for (int i = 0; i < ringBuffers.length; i++) {
+        while (nextSequences[i] <= availableSequences[i]) {
+          consume(ringBuffers[i], nextSequences[i]++, --remaining == 0);
+        }
+      }
+    }
+
+    releaseAll();
+    return batchSize;
+  }
+
+  private void releaseAll() {
+    for (int i = 0; i < ringBuffers.length; i++) {
+      ringBuffers[i].sequencer().release(nextSequences[i] - 1);
+    }
+  }
+
+  private void consume(AsyncLogRingBuffer ringBuffer, long sequence, boolean endOfBatch) {
+    AsyncLogRingBuffer.LogEvent event = ringBuffer.get(sequence);
+    try {
+      handler.onEvent(event, sequence, endOfBatch);
+    } catch (Exception e) {
+      // Log consumer error but continue processing
+      System.err.println("Error consuming log event: " + e.getMessage());
+    }
+    event.reset();
+  }
+
+  public void shutdown() {
+    running = false;
+    waitStrategy.signalAllWhenBlocking();
+    LockSupport.unpark(consumerThread);
+    try {
+      consumerThread.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
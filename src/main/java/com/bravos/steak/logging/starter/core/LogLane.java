@@ -0,0 +1,26 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Priority lane of the heap ring buffer. Each lane has its own slots, so a flood of chatter
+ * cannot take the capacity reserved for critical events.
+ */
+public enum LogLane {
+
+  /**
+   * ERROR and WARN events, drained first.
+   */
+  CRITICAL,
+
+  /**
+   * INFO and DEBUG events.
+   */
+  STANDARD;
+
+  public static LogLane of(LogLevel level) {
+    return switch (level) {
+      case ERROR, WARN -> CRITICAL;
+      case INFO, DEBUG -> STANDARD;
+    };
+  }
+
+}
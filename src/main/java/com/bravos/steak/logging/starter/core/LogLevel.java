@@ -0,0 +1,11 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Log levels, ordered from least to most severe.
+ */
+public enum LogLevel {
+  DEBUG,
+  INFO,
+  WARN,
+  ERROR
+}
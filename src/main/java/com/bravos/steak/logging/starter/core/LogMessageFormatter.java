@@ -1,8 +1,21 @@
 package com.bravos.steak.logging.starter.core;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Zero-allocation SLF4J-style message formatter.
  * Supports {} placeholders and auto-detects Throwable at the end of arguments.
+ * Formatting buffers are reused according to the {@link FormatBufferStrategy} each call passes in,
+ * so every {@link LoggerFactory} keeps its own.
  */
 public final class LogMessageFormatter {
 
@@ -11,6 +24,25 @@ public final class LogMessageFormatter {
 
   private static final ThreadLocal<StringBuilder> STRING_BUILDER_HOLDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
+  private static final StripedStringBuilderPool STRING_BUILDER_POOL = new StripedStringBuilderPool();
+
+  /**
+   * Maximum number of compiled patterns kept. Patterns are almost always constant literals; when a
+   * service builds patterns dynamically, clock eviction drops one pattern per miss that was not used
+   * since the hand last passed it, so the hot ones stay cached.
+   */
+  private static final int TEMPLATE_CACHE_SIZE = 1024;
+
+  private static final ConcurrentHashMap<String, Template> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+  private static final ReentrantLock TEMPLATE_EVICTION_LOCK = new ReentrantLock();
+
+  /**
+   * Clock hand over {@link #TEMPLATE_CACHE}, guarded by {@link #TEMPLATE_EVICTION_LOCK}; only misses on a
+   * full cache move it.
+   */
+  private static Iterator<Map.Entry<String, Template>> templateClockHand;
+
   private LogMessageFormatter() {
   }
 
@@ -22,6 +54,13 @@ public final class LogMessageFormatter {
    * @return formatted result containing message and optional throwable
    */
   public static FormattedResult format(String pattern, Object... args) {
+    return format(FormatBufferStrategy.ADAPTIVE, pattern, args);
+  }
+
+  /**
+   * Formats a message with SLF4J-style {} placeholders, taking buffers according to {@code strategy}.
+   */
+  public static FormattedResult format(FormatBufferStrategy strategy, String pattern, Object... args) {
     if (args == null || args.length == 0) {
       return new FormattedResult(pattern, null);
     }
@@ -39,32 +78,192 @@ public final class LogMessageFormatter {
       return new FormattedResult(pattern, throwable);
     }
 
-    StringBuilder sb = STRING_BUILDER_HOLDER.get();
+    return new FormattedResult(format(strategy, pattern, args, argCount), throwable);
+  }
+
+  /**
+   * Formats a message with the first {@code argCount} arguments; a trailing Throwable
+   * must already be excluded from the count.
+   *
+   * @return the formatted message
+   */
+  public static String format(FormatBufferStrategy strategy, String pattern, Object[] args, int argCount) {
+    return format(strategy, pattern, argCount, args, null, null, null);
+  }
+
+  /**
+   * Formats a message with one argument, without allocating an argument array.
+   * A Throwable argument must be split off by the caller.
+   */
+  public static String format(FormatBufferStrategy strategy, String pattern, Object a) {
+    return format(strategy, pattern, 1, null, a, null, null);
+  }
+
+  public static String format(FormatBufferStrategy strategy, String pattern, Object a, Object b) {
+    return format(strategy, pattern, 2, null, a, b, null);
+  }
+
+  public static String format(FormatBufferStrategy strategy, String pattern, Object a, Object b, Object c) {
+    return format(strategy, pattern, 3, null, a, b, c);
+  }
+
+  /**
+   * Shared formatting loop. Arguments come from {@code args} if present, otherwise from
+   * {@code a}, {@code b} and {@code c}, so fixed-arity callers need no array.
+   */
+  private static String format(FormatBufferStrategy strategy, String pattern, int argCount, Object[] args,
+                               Object a, Object b, Object c) {
+    String[] segments = template(pattern).segments;
+    boolean pooled = usePool(strategy);
+    StringBuilder sb = pooled ? STRING_BUILDER_POOL.acquire() : STRING_BUILDER_HOLDER.get();
     sb.setLength(0);
+    try {
+      // Straight interleave of literal segments and arguments, placeholders sit between segments
+      int placeholders = segments.length - 1;
+      for (int i = 0; i < placeholders; i++) {
+        sb.append(segments[i]);
+        if (i < argCount) {
+          appendArg(sb, args != null ? args[i] : i == 0 ? a : i == 1 ? b : c);
+        } else {
+          sb.append(PLACEHOLDER);
+        }
+      }
+      sb.append(segments[placeholders]);
 
-    int argIndex = 0;
+      return sb.toString();
+    } finally {
+      if (pooled) {
+        STRING_BUILDER_POOL.release(sb);
+      }
+    }
+  }
+
+  private static boolean usePool(FormatBufferStrategy strategy) {
+    return switch (strategy) {
+      case THREAD_LOCAL -> false;
+      case STRIPED -> true;
+      case ADAPTIVE -> Thread.currentThread().isVirtual();
+    };
+  }
+
+  private static Template template(String pattern) {
+    Template template = TEMPLATE_CACHE.get(pattern);
+    if (template != null) {
+      // Read before writing, so hot templates are not written on every call
+      if (!template.referenced) {
+        template.referenced = true;
+      }
+      return template;
+    }
+    template = compile(pattern);
+    if (TEMPLATE_CACHE.size() >= TEMPLATE_CACHE_SIZE) {
+      // Another miss is already evicting: use this template once instead of queueing behind it
+      if (!TEMPLATE_EVICTION_LOCK.tryLock()) {
+        return template;
+      }
+      try {
+        evictTemplate();
+      } finally {
+        TEMPLATE_EVICTION_LOCK.unlock();
+      }
+    }
+    TEMPLATE_CACHE.putIfAbsent(pattern, template);
+    return template;
+  }
+
+  /**
+   * Second-chance eviction: the hand clears reference bits until it reaches a template that was not
+   * used since its last pass, and removes it. Two full turns always find one. Caller holds
+   * {@link #TEMPLATE_EVICTION_LOCK}.
+   */
+  private static void evictTemplate() {
+    for (int scanned = 0; scanned < 2 * TEMPLATE_CACHE_SIZE; scanned++) {
+      if (templateClockHand == null || !templateClockHand.hasNext()) {
+        templateClockHand = TEMPLATE_CACHE.entrySet().iterator();
+        if (!templateClockHand.hasNext()) {
+          return;
+        }
+      }
+      Map.Entry<String, Template> entry = templateClockHand.next();
+      Template candidate = entry.getValue();
+      if (candidate.referenced) {
+        candidate.referenced = false;
+      } else {
+        TEMPLATE_CACHE.remove(entry.getKey(), candidate);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Splits a pattern into the literal text around its {} placeholders, resolving escaped \{} once.
+   */
+  private static Template compile(String pattern) {
+    List<String> segments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder(pattern.length());
     int start = 0;
     int placeholderPos;
 
     while ((placeholderPos = pattern.indexOf(PLACEHOLDER, start)) != -1) {
-      sb.append(pattern, start, placeholderPos);
+      literal.append(pattern, start, placeholderPos);
 
       if (placeholderPos > 0 && pattern.charAt(placeholderPos - 1) == '\\') {
         // Escaped placeholder: \{} -> {}
-        sb.setLength(sb.length() - 1);
-        sb.append(PLACEHOLDER);
-      } else if (argIndex < argCount) {
-        appendArg(sb, args[argIndex++]);
+        literal.setLength(literal.length() - 1);
+        literal.append(PLACEHOLDER);
       } else {
-        sb.append(PLACEHOLDER);
+        segments.add(literal.toString());
+        literal.setLength(0);
       }
 
       start = placeholderPos + PLACEHOLDER_LENGTH;
     }
 
-    sb.append(pattern, start, pattern.length());
+    literal.append(pattern, start, pattern.length());
+    segments.add(literal.toString());
+    return new Template(segments.toArray(String[]::new));
+  }
 
-    return new FormattedResult(sb.toString(), throwable);
+  /**
+   * Captures an argument for formatting later on another thread.
+   * Immutable values are kept as they are; anything else is rendered now,
+   * so later changes to the argument cannot leak into the message.
+   */
+  public static Object snapshot(FormatBufferStrategy strategy, Object arg) {
+    if (arg == null
+        || arg instanceof String
+        || arg instanceof Integer
+        || arg instanceof Long
+        || arg instanceof Double
+        || arg instanceof Float
+        || arg instanceof Short
+        || arg instanceof Byte
+        || arg instanceof Boolean
+        || arg instanceof Character
+        || arg instanceof Enum<?>
+        || arg instanceof BigDecimal
+        || arg instanceof BigInteger
+        || arg instanceof UUID
+        || arg instanceof Instant
+        || arg instanceof Duration
+        || arg instanceof LocalDate
+        || arg instanceof LocalDateTime
+        || arg instanceof LocalTime
+        || arg instanceof OffsetDateTime
+        || arg instanceof ZonedDateTime) {
+      return arg;
+    }
+    boolean pooled = usePool(strategy);
+    StringBuilder sb = pooled ? STRING_BUILDER_POOL.acquire() : STRING_BUILDER_HOLDER.get();
+    sb.setLength(0);
+    try {
+      appendArg(sb, arg);
+      return sb.toString();
+    } finally {
+      if (pooled) {
+        STRING_BUILDER_POOL.release(sb);
+      }
+    }
   }
 
   private static void appendArg(StringBuilder sb, Object arg) {
@@ -132,6 +331,22 @@ public final class LogMessageFormatter {
     sb.append(']');
   }
 
+  /**
+   * Compiled pattern: {@code segments.length - 1} placeholders, one between each pair of literal segments.
+   */
+  private static final class Template {
+
+    final String[] segments;
+    /**
+     * Set on use, cleared by the eviction hand; racy updates only make eviction less exact.
+     */
+    boolean referenced;
+
+    Template(String[] segments) {
+      this.segments = segments;
+    }
+  }
+
   /**
    * Result containing formatted message and optional throwable.
    */
@@ -0,0 +1,209 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.model.EventLog;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Turns events of configured names into in-process metrics instead of publishing them. Each event only
+ * bumps striped counters on the logging thread: no formatting, no ID, no ring buffer slot. Every
+ * {@code interval} the factory's {@link LogTicker} sends one summary {@link EventLog} per name with the
+ * count and, for histograms, sum, min, max and bucket counts of the measured value.
+ * <p>
+ * Summaries are logged at INFO whatever the level of the counted events. The table of names is fixed
+ * at construction, so lookups take no lock.
+ */
+public final class LogMetricConverter {
+
+  public static final String COUNT_KEY = "count";
+  public static final String INTERVAL_START_KEY = "intervalStart";
+  public static final String INTERVAL_END_KEY = "intervalEnd";
+  public static final String VALUE_KEY = "valueKey";
+  public static final String SUM_KEY = "sum";
+  public static final String MIN_KEY = "min";
+  public static final String MAX_KEY = "max";
+  public static final String BUCKETS_KEY = "buckets";
+
+  private final Map<String, EventMetric> metrics;
+  private final String serviceName;
+  private final LogClock clock;
+  private final LongSupplier idGenerator;
+  private final Consumer<EventLog> sink;
+  private final ScheduledFuture<?> tickTask;
+  private long intervalStart;
+
+  /**
+   * @param definitions metric definition by event name
+   * @param interval    how often summaries are sent
+   * @param idGenerator IDs for summary events
+   * @param sink        receives the summary events on the ticker thread
+   */
+  public LogMetricConverter(Map<String, MetricDefinition> definitions, Duration interval, String serviceName,
+                            LogClock clock, LongSupplier idGenerator, Consumer<EventLog> sink, LogTicker ticker) {
+    Map<String, EventMetric> table = HashMap.newHashMap(definitions.size());
+    definitions.forEach((eventName, definition) -> table.put(eventName, new EventMetric(eventName, definition)));
+    this.metrics = Map.copyOf(table);
+    this.serviceName = serviceName;
+    this.clock = clock;
+    this.idGenerator = idGenerator;
+    this.sink = sink;
+    this.intervalStart = clock.currentTimeMillis();
+    this.tickTask = ticker.schedule("log-metric-converter", interval, this::flush);
+  }
+
+  /**
+   * Records the event if its name is converted to a metric.
+   *
+   * @param metadata  metadata of the event, may be null
+   * @param keyValues structured fields of the event, may be null
+   * @return true if the event was recorded and must not be published
+   */
+  boolean record(String eventName, Map<String, Object> metadata, KeyValues keyValues) {
+    // Map.copyOf tables throw on a null key
+    EventMetric metric = eventName != null ? metrics.get(eventName) : null;
+    if (metric == null) {
+      return false;
+    }
+    String valueKey = metric.definition.valueKey();
+    if (valueKey == null) {
+      metric.count.increment();
+      return true;
+    }
+    double value = Double.NaN;
+    int index = keyValues != null ? keyValues.indexOf(valueKey) : -1;
+    if (index >= 0) {
+      value = switch (keyValues.type(index)) {
+        case KeyValues.TYPE_LONG -> keyValues.longValue(index);
+        case KeyValues.TYPE_DOUBLE -> keyValues.doubleValue(index);
+        default -> keyValues.objectValue(index) instanceof Number n ? n.doubleValue() : Double.NaN;
+      };
+    } else if (metadata != null && metadata.get(valueKey) instanceof Number n) {
+      value = n.doubleValue();
+    }
+    metric.record(value);
+    return true;
+  }
+
+  private synchronized void flush() {
+    long start = intervalStart;
+    long end = clock.currentTimeMillis();
+    intervalStart = end;
+    for (EventMetric metric : metrics.values()) {
+      try {
+        EventLog summary = metric.drain(start, end);
+        if (summary != null) {
+          sink.accept(summary);
+        }
+      } catch (Exception e) {
+        System.err.println("Failed to send metric summary of " + metric.eventName + ": " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Stops the ticker task and sends the summaries of the current interval.
+   */
+  public void shutdown() {
+    tickTask.cancel(false);
+    flush();
+  }
+
+  /**
+   * Aggregates of one event name; every field is a striped accumulator, so concurrent loggers do not contend.
+   */
+  private final class EventMetric {
+
+    final String eventName;
+    final MetricDefinition definition;
+    final LongAdder count = new LongAdder();
+    final DoubleAdder sum;
+    final DoubleAccumulator min;
+    final DoubleAccumulator max;
+    final LongAdder[] buckets;
+
+    EventMetric(String eventName, MetricDefinition definition) {
+      this.eventName = eventName;
+      this.definition = definition;
+      if (definition.valueKey() != null) {
+        this.sum = new DoubleAdder();
+        this.min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        this.max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        this.buckets = new LongAdder[definition.bucketBounds().length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+          buckets[i] = new LongAdder();
+        }
+      } else {
+        this.sum = null;
+        this.min = null;
+        this.max = null;
+        this.buckets = null;
+      }
+    }
+
+    void record(double value) {
+      count.increment();
+      if (Double.isNaN(value)) {
+        // Event without the measured value: counted, but not part of the distribution
+        return;
+      }
+      sum.add(value);
+      min.accumulate(value);
+      max.accumulate(value);
+      int bucket = Arrays.binarySearch(definition.bucketBounds(), value);
+      buckets[bucket >= 0 ? bucket : -bucket - 1].increment();
+    }
+
+    /**
+     * @return the summary of the interval, or null if nothing was recorded
+     */
+    EventLog drain(long start, long end) {
+      long events = count.sumThenReset();
+      if (events == 0) {
+        return null;
+      }
+      Map<String, Object> metadata = new LinkedHashMap<>();
+      metadata.put(COUNT_KEY, events);
+      metadata.put(INTERVAL_START_KEY, start);
+      metadata.put(INTERVAL_END_KEY, end);
+      if (definition.valueKey() != null) {
+        double[] bounds = definition.bucketBounds();
+        Map<String, Long> bucketCounts = new LinkedHashMap<>();
+        long measured = 0;
+        for (int i = 0; i < buckets.length; i++) {
+          long bucketCount = buckets[i].sumThenReset();
+          measured += bucketCount;
+          bucketCounts.put(i < bounds.length ? "le " + bounds[i] : "+Inf", bucketCount);
+        }
+        metadata.put(VALUE_KEY, definition.valueKey());
+        metadata.put(SUM_KEY, sum.sumThenReset());
+        if (measured > 0) {
+          metadata.put(MIN_KEY, min.getThenReset());
+          metadata.put(MAX_KEY, max.getThenReset());
+        }
+        metadata.put(BUCKETS_KEY, bucketCounts);
+      }
+      return EventLog.builder()
+          .id(idGenerator.getAsLong())
+          .level(LogLevel.INFO.name())
+          .eventName(eventName)
+          .message("[" + LogMetricConverter.class.getSimpleName() + "] " + events + " " + eventName
+              + " events between " + start + " and " + end)
+          .service(serviceName)
+          .metadata(metadata)
+          .timestamp(end)
+          .build();
+    }
+  }
+
+}
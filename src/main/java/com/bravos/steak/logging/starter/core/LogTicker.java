@@ -0,0 +1,60 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic background work of one {@link LoggerFactory}: the coarse clock, repeated event windows,
+ * metric summaries and tail-sampling expiry all run here instead of on a thread each.
+ * <p>
+ * Tasks run with a fixed delay, so a task never overlaps itself; a run that throws is reported and the
+ * task keeps its schedule. Two daemon threads keep the clock ticking while another task waits on a send.
+ */
+public final class LogTicker {
+
+  private static final int THREADS = 2;
+
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  public LogTicker() {
+    this.scheduler = new ScheduledThreadPoolExecutor(THREADS,
+        Thread.ofPlatform().name("log-ticker-", 0).daemon(true).factory());
+    this.scheduler.setRemoveOnCancelPolicy(true);
+    this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /**
+   * Runs {@code task} every {@code interval}, the first time one interval from now.
+   *
+   * @param name used when reporting a failed run
+   * @return cancel it to stop the task
+   */
+  public ScheduledFuture<?> schedule(String name, Duration interval, Runnable task) {
+    long intervalNanos = Math.max(1, interval.toNanos());
+    return scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        task.run();
+      } catch (Exception e) {
+        System.err.println("Log ticker task " + name + " failed: " + e.getMessage());
+      }
+    }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops all tasks, waiting up to five seconds for running ones.
+   */
+  public void shutdown() {
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+        scheduler.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      scheduler.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -1,40 +1,118 @@
 package com.bravos.steak.logging.starter.core;
 
-import com.bravos.steak.commonutils.shared.helper.DateTimeHelper;
 import com.bravos.steak.logging.starter.annotation.MutateSensitiveData;
 import com.bravos.steak.logging.starter.core.LogMessageFormatter.FormattedResult;
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.core.sampling.EventSampler;
+import com.bravos.steak.logging.starter.core.trace.JobTraceScope;
+import com.bravos.steak.logging.starter.core.trace.LogContext;
 import com.bravos.steak.security.starter.context.RequestContext;
 import com.bravos.steak.security.starter.context.RequestContextHolder;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * High-performance logger with:
  * - SLF4J-style {} placeholder formatting
  * - Auto-detection of Throwable at end of arguments
- * - Zero-allocation message formatting (ThreadLocal StringBuilder)
+ * - Reusable StringBuilder buffers for formatting (see {@link FormatBufferStrategy}); eager formatting still
+ * allocates the message String, while deferred formatting with the one- to three-argument overloads
+ * allocates nothing on a platform thread (each virtual thread allocates its small scratch arrays once)
  * - Async appender using lock-free ring buffer
  */
 public final class Logger {
 
   private static final Map<String, Object> EMPTY_METADATA = Collections.emptyMap();
-  private static final String LEVEL_INFO = "INFO";
-  private static final String LEVEL_WARN = "WARN";
-  private static final String LEVEL_ERROR = "ERROR";
-  private static final String LEVEL_DEBUG = "DEBUG";
+
+  /**
+   * Metadata key carrying how many events of the same name were suppressed by sampling since the last one emitted.
+   */
+  public static final String SUPPRESSED_COUNT_KEY = "suppressedCount";
+
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private static final ThreadLocal<FixedArguments> FIXED_ARGUMENTS_HOLDER = ThreadLocal.withInitial(FixedArguments::new);
+
+  private static final ThreadLocal<LogEventBuilder> EVENT_BUILDER_HOLDER = ThreadLocal.withInitial(LogEventBuilder::new);
 
   private final LoggerFactory loggerFactory;
   private final Class<?> clazz;
   private final MutateHelperSensitive mutateHelperSensitive;
 
+  /**
+   * Enabled levels resolved for this logger's class, valid while the factory's level generation matches.
+   * Immutable, so a racy re-resolution by several threads is harmless.
+   */
+  private LevelState levelState;
+
   Logger(LoggerFactory loggerFactory, Class<?> clazz) {
     this.loggerFactory = loggerFactory;
     this.clazz = clazz;
     this.mutateHelperSensitive = new MutateHelperSensitive(this);
+    this.levelState = resolveLevelState();
+  }
+
+  public boolean isInfoEnabled() {
+    return isEnabled(LogLevel.INFO);
+  }
+
+  public boolean isWarnEnabled() {
+    return isEnabled(LogLevel.WARN);
+  }
+
+  public boolean isErrorEnabled() {
+    return isEnabled(LogLevel.ERROR);
+  }
+
+  public boolean isDebugEnabled() {
+    return isEnabled(LogLevel.DEBUG);
+  }
+
+  private boolean isEnabled(LogLevel level) {
+    LevelState state = levelState;
+    if (state.generation() != loggerFactory.getLevelGeneration()) {
+      // Levels were reconfigured since this logger last looked
+      state = resolveLevelState();
+      levelState = state;
+    }
+    return (state.enabledLevels() & (1 << level.ordinal())) != 0;
+  }
+
+  /**
+   * Level check plus the event name's {@link EventSampler} policy, before any formatting or ID generation.
+   */
+  private boolean shouldLog(LogLevel level, String eventName) {
+    if (!isEnabled(level)) {
+      return false;
+    }
+    EventSampler sampler = loggerFactory.getEventSampler();
+    return sampler == null || sampler.tryAcquire(eventName);
+  }
+
+  /**
+   * {@link #shouldLog} plus the {@link LogMetricConverter}: an event counted as a metric is not published.
+   * Checked once per call, before the trace ID, formatting, metadata copy or ID generation; only a metadata
+   * supplier runs first, as the metadata may carry the measured value.
+   *
+   * @param metadata metadata of the event, may be null
+   */
+  private boolean shouldPublish(LogLevel level, String eventName, Map<String, Object> metadata) {
+    return shouldLog(level, eventName) && !recordAsMetric(eventName, metadata, null);
+  }
+
+  private LevelState resolveLevelState() {
+    // Read the generation first: a change during resolution then forces another pass
+    int generation = loggerFactory.getLevelGeneration();
+    int enabledLevels = loggerFactory.resolveEnabledLevels(clazz);
+    TailSamplingBuffer tailSamplingBuffer = loggerFactory.getTailSamplingBuffer();
+    // Levels held by tail sampling are always captured, so they are there for failing traces
+    int heldLevels = tailSamplingBuffer != null ? tailSamplingBuffer.heldLevels() : 0;
+    return new LevelState(generation, enabledLevels | heldLevels, enabledLevels);
   }
 
   // ==================== INFO ====================
@@ -48,26 +126,66 @@ public final class Logger {
    * @param args      the arguments (last arg can be Throwable)
    */
   public void info(String eventName, String message, Object... args) {
-    if (!loggerFactory.isInfoEnabled()) return;
-    FormattedResult result = LogMessageFormatter.format(message, args);
-    publishAsync(LEVEL_INFO, eventName, result.message(), result.throwable(), EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishFormatted(LogLevel.INFO, eventName, message, args);
+  }
+
+  /**
+   * Log info message with one argument, without a varargs array (nothing is allocated with deferred
+   * formatting). The argument may be a Throwable.
+   */
+  public void info(String eventName, String message, Object a) {
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishFormatted(LogLevel.INFO, eventName, message, 1, a, null, null);
+  }
+
+  public void info(String eventName, String message, Object a, Object b) {
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishFormatted(LogLevel.INFO, eventName, message, 2, a, b, null);
+  }
+
+  public void info(String eventName, String message, Object a, Object b, Object c) {
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishFormatted(LogLevel.INFO, eventName, message, 3, a, b, c);
   }
 
   public void info(String eventName, String message) {
-    if (!loggerFactory.isInfoEnabled()) return;
-    publishAsync(LEVEL_INFO, eventName, message, null, EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishAsync(LogLevel.INFO, eventName, message, null, EMPTY_METADATA);
+  }
+
+  /**
+   * Log info message built lazily; the supplier only runs if INFO is enabled.
+   */
+  public void info(String eventName, Supplier<String> messageSupplier) {
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
+    publishAsync(LogLevel.INFO, eventName, messageSupplier.get(), null, EMPTY_METADATA);
+  }
+
+  public void info(String eventName, Supplier<String> messageSupplier, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.INFO, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.INFO, eventName, messageSupplier.get(), null, copyMetadata(metadata));
+  }
+
+  public void info(String eventName, String message, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.INFO, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.INFO, eventName, message, null, copyMetadata(metadata));
   }
 
   public void info(String eventName, String message, Map<String, Object> metadata) {
-    if (!loggerFactory.isInfoEnabled()) return;
-    publishAsync(LEVEL_INFO, eventName, message, null, copyMetadata(metadata));
+    if (!shouldPublish(LogLevel.INFO, eventName, metadata)) return;
+    publishAsync(LogLevel.INFO, eventName, message, null, copyMetadata(metadata));
   }
 
   public void info(String eventName, String message, SensitiveData sensitiveData) {
-    if (!loggerFactory.isInfoEnabled()) return;
+    if (!shouldPublish(LogLevel.INFO, eventName, null)) return;
     final String traceId = getTraceId();
-    loggerFactory.getExecutorService().submit(() ->
-        mutateHelperSensitive.infoWithSensitiveData(traceId, eventName, message, sensitiveData));
+    loggerFactory.getExecutorService().submit(LogContext.wrap(() ->
+        mutateHelperSensitive.infoWithSensitiveData(traceId, eventName, message, sensitiveData)));
   }
 
   // ==================== WARN ====================
@@ -76,26 +194,66 @@ public final class Logger {
    * Log warn message with SLF4J-style formatting.
    */
   public void warn(String eventName, String message, Object... args) {
-    if (!loggerFactory.isWarnEnabled()) return;
-    FormattedResult result = LogMessageFormatter.format(message, args);
-    publishAsync(LEVEL_WARN, eventName, result.message(), result.throwable(), EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishFormatted(LogLevel.WARN, eventName, message, args);
+  }
+
+  /**
+   * Log warn message with one argument, without a varargs array (nothing is allocated with deferred
+   * formatting). The argument may be a Throwable.
+   */
+  public void warn(String eventName, String message, Object a) {
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishFormatted(LogLevel.WARN, eventName, message, 1, a, null, null);
+  }
+
+  public void warn(String eventName, String message, Object a, Object b) {
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishFormatted(LogLevel.WARN, eventName, message, 2, a, b, null);
+  }
+
+  public void warn(String eventName, String message, Object a, Object b, Object c) {
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishFormatted(LogLevel.WARN, eventName, message, 3, a, b, c);
   }
 
   public void warn(String eventName, String message) {
-    if (!loggerFactory.isWarnEnabled()) return;
-    publishAsync(LEVEL_WARN, eventName, message, null, EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishAsync(LogLevel.WARN, eventName, message, null, EMPTY_METADATA);
+  }
+
+  /**
+   * Log warn message built lazily; the supplier only runs if WARN is enabled.
+   */
+  public void warn(String eventName, Supplier<String> messageSupplier) {
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
+    publishAsync(LogLevel.WARN, eventName, messageSupplier.get(), null, EMPTY_METADATA);
+  }
+
+  public void warn(String eventName, Supplier<String> messageSupplier, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.WARN, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.WARN, eventName, messageSupplier.get(), null, copyMetadata(metadata));
+  }
+
+  public void warn(String eventName, String message, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.WARN, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.WARN, eventName, message, null, copyMetadata(metadata));
   }
 
   public void warn(String eventName, String message, Map<String, Object> metadata) {
-    if (!loggerFactory.isWarnEnabled()) return;
-    publishAsync(LEVEL_WARN, eventName, message, null, copyMetadata(metadata));
+    if (!shouldPublish(LogLevel.WARN, eventName, metadata)) return;
+    publishAsync(LogLevel.WARN, eventName, message, null, copyMetadata(metadata));
   }
 
   public void warn(String eventName, String message, SensitiveData sensitiveData) {
-    if (!loggerFactory.isWarnEnabled()) return;
+    if (!shouldPublish(LogLevel.WARN, eventName, null)) return;
     final String traceId = getTraceId();
-    loggerFactory.getExecutorService().submit(() ->
-        mutateHelperSensitive.warnWithSensitiveData(traceId, eventName, message, sensitiveData));
+    loggerFactory.getExecutorService().submit(LogContext.wrap(() ->
+        mutateHelperSensitive.warnWithSensitiveData(traceId, eventName, message, sensitiveData)));
   }
 
   // ==================== ERROR ====================
@@ -104,31 +262,76 @@ public final class Logger {
    * Log error message with SLF4J-style formatting.
    */
   public void error(String eventName, String message, Object... args) {
-    if (!loggerFactory.isErrorEnabled()) return;
-    FormattedResult result = LogMessageFormatter.format(message, args);
-    publishAsync(LEVEL_ERROR, eventName, result.message(), result.throwable(), EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishFormatted(LogLevel.ERROR, eventName, message, args);
+  }
+
+  /**
+   * Log error message with one argument, without a varargs array (nothing is allocated with deferred
+   * formatting). The argument may be a Throwable.
+   */
+  public void error(String eventName, String message, Object a) {
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishFormatted(LogLevel.ERROR, eventName, message, 1, a, null, null);
+  }
+
+  public void error(String eventName, String message, Object a, Object b) {
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishFormatted(LogLevel.ERROR, eventName, message, 2, a, b, null);
+  }
+
+  public void error(String eventName, String message, Object a, Object b, Object c) {
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishFormatted(LogLevel.ERROR, eventName, message, 3, a, b, c);
   }
 
   public void error(String eventName, String message) {
-    if (!loggerFactory.isErrorEnabled()) return;
-    publishAsync(LEVEL_ERROR, eventName, message, null, EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, message, null, EMPTY_METADATA);
+  }
+
+  /**
+   * Log error message built lazily; the supplier only runs if ERROR is enabled.
+   */
+  public void error(String eventName, Supplier<String> messageSupplier) {
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, messageSupplier.get(), null, EMPTY_METADATA);
+  }
+
+  public void error(String eventName, Supplier<String> messageSupplier, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.ERROR, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, messageSupplier.get(), null, copyMetadata(metadata));
+  }
+
+  public void error(String eventName, String message, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.ERROR, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, message, null, copyMetadata(metadata));
+  }
+
+  public void error(String eventName, Supplier<String> messageSupplier, Throwable throwable) {
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, messageSupplier.get(), throwable, EMPTY_METADATA);
   }
 
   public void error(String eventName, String message, Throwable throwable) {
-    if (!loggerFactory.isErrorEnabled()) return;
-    publishAsync(LEVEL_ERROR, eventName, message, throwable, EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
+    publishAsync(LogLevel.ERROR, eventName, message, throwable, EMPTY_METADATA);
   }
 
   public void error(String eventName, String message, Throwable throwable, Map<String, Object> metadata) {
-    if (!loggerFactory.isErrorEnabled()) return;
-    publishAsync(LEVEL_ERROR, eventName, message, throwable, copyMetadata(metadata));
+    if (!shouldPublish(LogLevel.ERROR, eventName, metadata)) return;
+    publishAsync(LogLevel.ERROR, eventName, message, throwable, copyMetadata(metadata));
   }
 
   public void error(String eventName, String message, Throwable throwable, SensitiveData sensitiveData) {
-    if (!loggerFactory.isErrorEnabled()) return;
+    if (!shouldPublish(LogLevel.ERROR, eventName, null)) return;
     final String traceId = getTraceId();
-    loggerFactory.getExecutorService().submit(() ->
-        mutateHelperSensitive.errorWithSensitiveData(traceId, eventName, message, throwable, sensitiveData));
+    loggerFactory.getExecutorService().submit(LogContext.wrap(() ->
+        mutateHelperSensitive.errorWithSensitiveData(traceId, eventName, message, throwable, sensitiveData)));
   }
 
   // ==================== DEBUG ====================
@@ -137,67 +340,245 @@ public final class Logger {
    * Log debug message with SLF4J-style formatting.
    */
   public void debug(String eventName, String message, Object... args) {
-    if (!loggerFactory.isDebugEnabled()) return;
-    FormattedResult result = LogMessageFormatter.format(message, args);
-    publishAsync(LEVEL_DEBUG, eventName, result.message(), result.throwable(), EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishFormatted(LogLevel.DEBUG, eventName, message, args);
+  }
+
+  /**
+   * Log debug message with one argument, without a varargs array (nothing is allocated with deferred
+   * formatting). The argument may be a Throwable.
+   */
+  public void debug(String eventName, String message, Object a) {
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishFormatted(LogLevel.DEBUG, eventName, message, 1, a, null, null);
+  }
+
+  public void debug(String eventName, String message, Object a, Object b) {
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishFormatted(LogLevel.DEBUG, eventName, message, 2, a, b, null);
+  }
+
+  public void debug(String eventName, String message, Object a, Object b, Object c) {
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishFormatted(LogLevel.DEBUG, eventName, message, 3, a, b, c);
   }
 
   public void debug(String eventName, String message) {
-    if (!loggerFactory.isDebugEnabled()) return;
-    publishAsync(LEVEL_DEBUG, eventName, message, null, EMPTY_METADATA);
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishAsync(LogLevel.DEBUG, eventName, message, null, EMPTY_METADATA);
+  }
+
+  /**
+   * Log debug message built lazily; the supplier only runs if DEBUG is enabled.
+   */
+  public void debug(String eventName, Supplier<String> messageSupplier) {
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
+    publishAsync(LogLevel.DEBUG, eventName, messageSupplier.get(), null, EMPTY_METADATA);
+  }
+
+  public void debug(String eventName, Supplier<String> messageSupplier, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.DEBUG, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.DEBUG, eventName, messageSupplier.get(), null, copyMetadata(metadata));
+  }
+
+  public void debug(String eventName, String message, Supplier<Map<String, Object>> metadataSupplier) {
+    if (!shouldLog(LogLevel.DEBUG, eventName)) return;
+    Map<String, Object> metadata = metadataSupplier.get();
+    if (recordAsMetric(eventName, metadata, null)) return;
+    publishAsync(LogLevel.DEBUG, eventName, message, null, copyMetadata(metadata));
   }
 
   public void debug(String eventName, String message, Map<String, Object> metadata) {
-    if (!loggerFactory.isDebugEnabled()) return;
-    publishAsync(LEVEL_DEBUG, eventName, message, null, copyMetadata(metadata));
+    if (!shouldPublish(LogLevel.DEBUG, eventName, metadata)) return;
+    publishAsync(LogLevel.DEBUG, eventName, message, null, copyMetadata(metadata));
   }
 
   public void debug(String eventName, String message, SensitiveData sensitiveData) {
-    if (!loggerFactory.isDebugEnabled()) return;
+    if (!shouldPublish(LogLevel.DEBUG, eventName, null)) return;
     final String traceId = getTraceId();
-    loggerFactory.getExecutorService().submit(() ->
-        mutateHelperSensitive.debugWithSensitiveData(traceId, eventName, message, sensitiveData));
+    loggerFactory.getExecutorService().submit(LogContext.wrap(() ->
+        mutateHelperSensitive.debugWithSensitiveData(traceId, eventName, message, sensitiveData)));
+  }
+
+  // ==================== STRUCTURED ====================
+
+  /**
+   * Starts a structured INFO event, see {@link LogEventBuilder}.
+   */
+  public LogEventBuilder atInfo(String eventName) {
+    if (!shouldLog(LogLevel.INFO, eventName)) return LogEventBuilder.DISABLED;
+    return eventBuilder(LogLevel.INFO, eventName);
+  }
+
+  public LogEventBuilder atWarn(String eventName) {
+    if (!shouldLog(LogLevel.WARN, eventName)) return LogEventBuilder.DISABLED;
+    return eventBuilder(LogLevel.WARN, eventName);
+  }
+
+  public LogEventBuilder atError(String eventName) {
+    if (!shouldLog(LogLevel.ERROR, eventName)) return LogEventBuilder.DISABLED;
+    return eventBuilder(LogLevel.ERROR, eventName);
+  }
+
+  public LogEventBuilder atDebug(String eventName) {
+    if (!shouldLog(LogLevel.DEBUG, eventName)) return LogEventBuilder.DISABLED;
+    return eventBuilder(LogLevel.DEBUG, eventName);
+  }
+
+  private LogEventBuilder eventBuilder(LogLevel level, String eventName) {
+    LogEventBuilder builder = EVENT_BUILDER_HOLDER.get();
+    if (builder.inUse()) {
+      // Either logging while building another event on this thread, e.g. from a value's toString(),
+      // or a chain abandoned before log(): the open chain keeps its builder, the thread moves on to a new one
+      builder = new LogEventBuilder();
+      EVENT_BUILDER_HOLDER.set(builder);
+    }
+    return builder.start(this, level, eventName);
+  }
+
+  void logStructured(LogLevel level, String eventName, String message, Throwable throwable, KeyValues keyValues) {
+    // The measured value may be one of the fields, so the metric check waits for log()
+    if (recordAsMetric(eventName, null, keyValues)) return;
+    logHandler(level, getTraceId(), eventName, message, null, 0, throwable, EMPTY_METADATA, keyValues);
   }
 
   // ==================== CORE METHODS ====================
 
-  private void publishAsync(String level, String eventName, String message, Throwable throwable, Map<String, Object> metadata) {
-    String traceId = getTraceId();
-    long id = loggerFactory.getSnowflake().next();
-    long timestamp = DateTimeHelper.currentTimeMillis();
+  private void publishAsync(LogLevel level, String eventName, String message, Throwable throwable, Map<String, Object> metadata) {
+    logHandler(level, getTraceId(), eventName, message, null, 0, throwable, metadata);
+  }
 
-    boolean published = loggerFactory.getRingBuffer().publish(
-        id, traceId, level, eventName, message,
-        loggerFactory.getServiceName(), throwable, metadata, timestamp, clazz
-    );
+  /**
+   * Publishes a parameterized message, formatting it here or, in deferred mode, on the consumer thread.
+   */
+  private void publishFormatted(LogLevel level, String eventName, String pattern, Object[] args) {
+    if (!loggerFactory.isDeferredFormatting()) {
+      FormattedResult result = LogMessageFormatter.format(loggerFactory.getFormatBufferStrategy(), pattern, args);
+      publishAsync(level, eventName, result.message(), result.throwable(), EMPTY_METADATA);
+      return;
+    }
+    int argCount = args == null ? 0 : args.length;
+    Throwable throwable = null;
+    // Auto-detect Throwable at end of args
+    if (argCount > 0 && args[argCount - 1] instanceof Throwable t) {
+      throwable = t;
+      argCount--;
+    }
+    logHandler(level, getTraceId(), eventName, pattern, argCount > 0 ? args : null, argCount, throwable, EMPTY_METADATA);
+  }
 
-    // Fallback: if ring buffer is full, log directly (sync)
-    if (!published) {
-      logDirect(level, traceId, id, eventName, message, throwable, metadata, timestamp);
+  /**
+   * Fixed-arity variant of {@link #publishFormatted(LogLevel, String, String, Object[])}: no varargs array
+   * and no {@link FormattedResult}. Deferred mode hands the arguments over in a per-thread scratch array,
+   * which the slot copies before the call returns.
+   */
+  private void publishFormatted(LogLevel level, String eventName, String pattern, int argCount,
+                                Object a, Object b, Object c) {
+    Object last = argCount == 1 ? a : argCount == 2 ? b : c;
+    Throwable throwable = null;
+    // Auto-detect Throwable at end of args
+    if (last instanceof Throwable t) {
+      throwable = t;
+      argCount--;
+    }
+    if (argCount == 0) {
+      publishAsync(level, eventName, pattern, throwable, EMPTY_METADATA);
+      return;
     }
+    if (loggerFactory.isDeferredFormatting()) {
+      FixedArguments holder = FIXED_ARGUMENTS_HOLDER.get();
+      if (holder.inUse) {
+        // Logging from an argument's toString() while this thread's array is being snapshotted
+        logHandler(level, getTraceId(), eventName, pattern, new Object[]{a, b, c}, argCount, throwable, EMPTY_METADATA);
+        return;
+      }
+      Object[] arguments = holder.values;
+      arguments[0] = a;
+      arguments[1] = b;
+      arguments[2] = c;
+      holder.inUse = true;
+      try {
+        logHandler(level, getTraceId(), eventName, pattern, arguments, argCount, throwable, EMPTY_METADATA);
+      } finally {
+        arguments[0] = null;
+        arguments[1] = null;
+        arguments[2] = null;
+        holder.inUse = false;
+      }
+      return;
+    }
+    FormatBufferStrategy strategy = loggerFactory.getFormatBufferStrategy();
+    String message = switch (argCount) {
+      case 1 -> LogMessageFormatter.format(strategy, pattern, a);
+      case 2 -> LogMessageFormatter.format(strategy, pattern, a, b);
+      default -> LogMessageFormatter.format(strategy, pattern, a, b, c);
+    };
+    publishAsync(level, eventName, message, throwable, EMPTY_METADATA);
   }
 
-  private void logDirect(String level, String traceId, long id, String eventName, String message,
-                         Throwable throwable, Map<String, Object> metadata, long timestamp) {
-    logToConsole(level, traceId, message, throwable);
+  void logHandler(LogLevel level, String traceId, String eventName, String message,
+                  Object[] arguments, int argumentCount, Throwable throwable, Map<String, Object> metadata) {
+    logHandler(level, traceId, eventName, message, arguments, argumentCount, throwable, metadata, null);
   }
 
-  void logHandler(String level, String traceId, String eventName, String message,
-                  Throwable throwable, Map<String, Object> metadata) {
-    long id = loggerFactory.getSnowflake().next();
-    long timestamp = DateTimeHelper.currentTimeMillis();
+  /**
+   * @param keyValues structured fields, copied before this returns, or null
+   */
+  void logHandler(LogLevel level, String traceId, String eventName, String message,
+                  Object[] arguments, int argumentCount, Throwable throwable, Map<String, Object> metadata,
+                  KeyValues keyValues) {
+    EventSampler sampler = loggerFactory.getEventSampler();
+    if (sampler != null) {
+      long suppressed = sampler.drainSuppressed(eventName);
+      if (suppressed > 0) {
+        metadata = withSuppressedCount(metadata, suppressed);
+      }
+    }
+    boolean scopedTrace = true;
+    TailSamplingBuffer tailSamplingBuffer = loggerFactory.getTailSamplingBuffer();
+    if (tailSamplingBuffer != null && tailSamplingBuffer.isHeld(level.name())
+        && traceId != null && !traceId.equals(scopedTraceId())) {
+      // No ERROR can ever release a trace of one event, so the level switches decide instead of tail sampling
+      if ((levelState.configuredLevels() & (1 << level.ordinal())) == 0) {
+        return;
+      }
+      scopedTrace = false;
+    }
+    long id = loggerFactory.nextId();
+    LogClock clock = loggerFactory.getClock();
+    long timestamp;
+    int timestampNanos;
+    if (loggerFactory.isPreciseTimestamps()) {
+      long nanos = clock.currentTimeNanos();
+      timestamp = nanos / NANOS_PER_MILLI;
+      timestampNanos = (int) (nanos % NANOS_PER_MILLI);
+    } else {
+      timestamp = clock.currentTimeMillis();
+      timestampNanos = -1;
+    }
 
-    loggerFactory.getRingBuffer().publish(
-        id, traceId, level, eventName, message,
-        loggerFactory.getServiceName(), throwable, metadata, timestamp, clazz
+    boolean published = loggerFactory.publish(
+        level, id, traceId, scopedTrace, eventName, message, arguments, argumentCount, throwable, metadata, keyValues,
+        LogContext.currentFields(), timestamp, timestampNanos, clazz
     );
+
+    // Dropped by the backpressure policy: keep it visible on the console at least
+    if (!published) {
+      if (arguments != null) {
+        message = LogMessageFormatter.format(
+            loggerFactory.getFormatBufferStrategy(), message, arguments, argumentCount);
+      }
+      logToConsole(level, traceId, message, throwable);
+    }
   }
 
-  private void logToConsole(String level, String traceId, String message, Throwable throwable) {
+  private void logToConsole(LogLevel level, String traceId, String message, Throwable throwable) {
     if(!loggerFactory.isConsoleEnabled()) return;
     String fullMessage = "[" + traceId + "] [" + clazz.getSimpleName() + "] " + message;
     switch (level) {
-      case LEVEL_ERROR -> {
+      case ERROR -> {
         System.err.println("[ERROR] " + fullMessage);
         if (throwable != null) {
           StringWriter sw = new StringWriter();
@@ -205,44 +586,91 @@ public final class Logger {
           System.err.println(sw);
         }
       }
-      case LEVEL_WARN -> System.out.println("[WARN] " + fullMessage);
-      case LEVEL_DEBUG -> System.out.println("[DEBUG] " + fullMessage);
+      case WARN -> System.out.println("[WARN] " + fullMessage);
+      case DEBUG -> System.out.println("[DEBUG] " + fullMessage);
       default -> System.out.println("[INFO] " + fullMessage);
     }
   }
 
+  /**
+   * @return true if the event was counted by the {@link LogMetricConverter} instead of being published
+   */
+  private boolean recordAsMetric(String eventName, Map<String, Object> metadata, KeyValues keyValues) {
+    LogMetricConverter converter = loggerFactory.getLogMetricConverter();
+    return converter != null && converter.record(eventName, metadata, keyValues);
+  }
+
   private String getTraceId() {
+    String traceId = scopedTraceId();
+    return traceId != null ? traceId : loggerFactory.getTraceIdGenerator().nextTraceId();
+  }
+
+  /**
+   * @return the trace ID of the enclosing {@code LogContext}, request or job, or null outside all of them
+   */
+  private String scopedTraceId() {
+    // The scoped context is checked first, so code running inside one needs no ThreadLocal lookup
+    LogContext logContext = LogContext.current();
+    if (logContext != null && logContext.getTraceId() != null) {
+      return logContext.getTraceId();
+    }
     RequestContext context = RequestContextHolder.get();
-    return context != null ? context.getTraceId() : UUID.randomUUID().toString();
+    if (context != null) {
+      return context.getTraceId();
+    }
+    return JobTraceScope.isActive() ? JobTraceScope.currentTraceId(loggerFactory.getTraceIdGenerator()) : null;
+  }
+
+  private static Map<String, Object> withSuppressedCount(Map<String, Object> metadata, long suppressed) {
+    Map<String, Object> copy = HashMap.newHashMap(metadata.size() + 1);
+    copy.putAll(metadata);
+    copy.put(SUPPRESSED_COUNT_KEY, suppressed);
+    return copy;
   }
 
   private static Map<String, Object> copyMetadata(Map<String, Object> metadata) {
     return metadata == null || metadata.isEmpty() ? EMPTY_METADATA : Map.copyOf(metadata);
   }
 
+  /**
+   * @param enabledLevels    bit {@code 1 << level.ordinal()} set for every captured {@link LogLevel}
+   * @param configuredLevels the same for the levels switched on, without those only held by tail sampling
+   */
+  private record LevelState(int generation, int enabledLevels, int configuredLevels) {
+  }
+
   // ==================== SENSITIVE DATA HELPER ====================
 
   private record MutateHelperSensitive(Logger logger) {
 
     @MutateSensitiveData
     public void infoWithSensitiveData(String traceId, String eventName, String message, SensitiveData sensitiveData) {
-      logger.logHandler(LEVEL_INFO, traceId, eventName, message, null, sensitiveData.getMutatedData());
+      logger.logHandler(LogLevel.INFO, traceId, eventName, message, null, 0, null, sensitiveData.getMutatedData());
     }
 
     @MutateSensitiveData
     public void warnWithSensitiveData(String traceId, String eventName, String message, SensitiveData sensitiveData) {
-      logger.logHandler(LEVEL_WARN, traceId, eventName, message, null, sensitiveData.getMutatedData());
+      logger.logHandler(LogLevel.WARN, traceId, eventName, message, null, 0, null, sensitiveData.getMutatedData());
     }
 
     @MutateSensitiveData
     public void debugWithSensitiveData(String traceId, String eventName, String message, SensitiveData sensitiveData) {
-      logger.logHandler(LEVEL_DEBUG, traceId, eventName, message, null, sensitiveData.getMutatedData());
+      logger.logHandler(LogLevel.DEBUG, traceId, eventName, message, null, 0, null, sensitiveData.getMutatedData());
     }
 
     @MutateSensitiveData
     public void errorWithSensitiveData(String traceId, String eventName, String message, Throwable throwable, SensitiveData sensitiveData) {
-      logger.logHandler(LEVEL_ERROR, traceId, eventName, message, throwable, sensitiveData.getMutatedData());
+      logger.logHandler(LogLevel.ERROR, traceId, eventName, message, null, 0, throwable, sensitiveData.getMutatedData());
     }
   }
 
+  /**
+   * Per-thread arguments of the one- to three-argument overloads, handed to the slot instead of a varargs array.
+   */
+  private static final class FixedArguments {
+
+    final Object[] values = new Object[3];
+    boolean inUse;
+  }
+
 }
@@ -1,13 +1,41 @@
 package com.bravos.steak.logging.starter.core;
 
 import com.bravos.steak.commonutils.shared.helper.Snowflake;
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.core.clock.SystemLogClock;
+import com.bravos.steak.logging.starter.core.sampling.EventSampler;
+import com.bravos.steak.logging.starter.core.sampling.SamplingPolicy;
+import com.bravos.steak.logging.starter.core.trace.RandomTraceIdGenerator;
+import com.bravos.steak.logging.starter.core.trace.TraceIdGenerator;
+import com.bravos.steak.logging.starter.core.wait.PhasedBackoffWaitStrategy;
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
+import com.bravos.steak.logging.starter.journal.OverflowJournal;
 import com.bravos.steak.logging.starter.model.EventLog;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.FieldDefaults;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
 
 /**
  * Factory for creating high-performance loggers with:
@@ -18,10 +46,33 @@ import java.util.concurrent.*;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public final class LoggerFactory {
 
+  private static final long BACKPRESSURE_PARK_NANOS = 10_000L; // 10 microseconds
+
+  /**
+   * ID of an event whose ID the consumer assigns, see {@link IdAssignment#CONSUMER}.
+   */
+  static final long UNASSIGNED_ID = 0L;
+
+  /**
+   * Completion of {@link KafkaTemplate#send}, shared so no callback is created per send; {@code whenComplete}
+   * still allocates a dependent future per send.
+   */
+  private static final BiConsumer<Object, Throwable> KAFKA_SEND_COMPLETION = (_, ex) -> {
+    if (ex != null) {
+      System.err.println("Failed to send event log to Kafka: " + ex.getMessage());
+    }
+  };
+
   final String serviceName;
   final KafkaTemplate<String, Object> kafkaTemplate;
   final ConcurrentHashMap<Class<?>, Logger> eventLoggers = new ConcurrentHashMap<>();
   final Snowflake snowflake;
+  final TraceIdGenerator traceIdGenerator;
+  final LogClock clock;
+  /**
+   * Whether events carry the nanoseconds within their millisecond, see {@link LogClock#isPrecise()}.
+   */
+  final boolean preciseTimestamps;
   final String eventLogTopic;
   final boolean infoEnabled;
   final boolean debugEnabled;
@@ -29,7 +80,51 @@ public final class LoggerFactory {
   final boolean warnEnabled;
   final boolean consoleEnabled;
   final boolean sendToKafka;
-  final AsyncLogRingBuffer ringBuffer;
+  /**
+   * Level thresholds per class or package name, overriding the global level switches.
+   */
+  final ConcurrentHashMap<String, LogLevel> loggerLevels = new ConcurrentHashMap<>();
+  /**
+   * Bumped on every change to {@link #loggerLevels}; loggers re-resolve their levels when it moves.
+   */
+  volatile int levelGeneration;
+  final ShardedLogRingBuffer ringBuffer;
+  final OffHeapLogRingBuffer offHeapRingBuffer;
+  /**
+   * Ring buffer lane of each level, indexed by {@link LogLevel#ordinal()}.
+   */
+  final int[] levelLanes;
+  final BackpressurePolicy[] backpressurePolicies;
+  final long backpressureTimeoutNanos;
+  final BackpressureCounters backpressureCounters;
+  final OverflowJournal overflowJournal;
+  final boolean deferredFormatting;
+  /**
+   * Where this factory's loggers and consumer take formatting buffers from.
+   */
+  final FormatBufferStrategy formatBufferStrategy;
+  final boolean consumerAssignedIds;
+  /**
+   * Collapses repeated events on the consumer thread, null if disabled.
+   */
+  final RepeatedEventAggregator repeatedEventAggregator;
+  /**
+   * Counts configured events instead of publishing them, null if none are configured.
+   */
+  final LogMetricConverter logMetricConverter;
+  /**
+   * Holds low-level events per trace until the trace logs an ERROR, null if disabled.
+   */
+  final TailSamplingBuffer tailSamplingBuffer;
+  /**
+   * Per event name sampling and rate limits, null if none are configured.
+   */
+  final EventSampler eventSampler;
+
+  /**
+   * Periodic work of this factory and its clock, see {@link LogTicker}.
+   */
+  final LogTicker ticker = new LogTicker();
 
   final ExecutorService executorService = new ThreadPoolExecutor(
       2, 8,
@@ -42,6 +137,10 @@ public final class LoggerFactory {
     this.serviceName = builder.serviceName;
     this.kafkaTemplate = builder.kafkaTemplate;
     this.snowflake = builder.snowflake;
+    this.traceIdGenerator = builder.traceIdGenerator;
+    this.clock = builder.clock;
+    this.preciseTimestamps = builder.clock.isPrecise();
+    this.clock.start(ticker);
     this.eventLogTopic = builder.eventLogTopic;
     this.infoEnabled = builder.infoEnabled;
     this.debugEnabled = builder.debugEnabled;
@@ -49,18 +148,564 @@ public final class LoggerFactory {
     this.warnEnabled = builder.warnEnabled;
     this.consoleEnabled = builder.consoleEnabled;
     this.sendToKafka = builder.sendToKafka;
-    this.ringBuffer = new AsyncLogRingBuffer(builder.ringBufferSize, this::consumeLogEvent);
+    this.deferredFormatting = builder.deferredFormatting;
+    this.loggerLevels.putAll(builder.loggerLevels);
+    this.eventSampler = builder.samplingPolicies.isEmpty() ? null : new EventSampler(builder.samplingPolicies);
+    this.formatBufferStrategy = builder.formatBufferStrategy;
+    if (builder.ringBufferMode == RingBufferMode.OFF_HEAP) {
+      if (builder.ringBufferShards != 1) {
+        throw new IllegalArgumentException("Ring buffer shards are not supported in off-heap mode");
+      }
+      this.ringBuffer = null;
+      this.offHeapRingBuffer = new OffHeapLogRingBuffer(
+          builder.offHeapCapacityBytes,
+          builder.offHeapSlotSize,
+          new KafkaSerializedEventLogHandler(builder.serializedKafkaTemplate),
+          builder.waitStrategy,
+          builder.consumerThreadMode
+      );
+    } else {
+      this.offHeapRingBuffer = null;
+      if (builder.priorityLanes) {
+        int[] laneSizes = new int[LogLane.values().length];
+        laneSizes[LogLane.CRITICAL.ordinal()] = builder.criticalLaneSize;
+        laneSizes[LogLane.STANDARD.ordinal()] = builder.ringBufferSize;
+        int[] laneWeights = new int[LogLane.values().length];
+        laneWeights[LogLane.CRITICAL.ordinal()] = builder.criticalLaneWeight;
+        laneWeights[LogLane.STANDARD.ordinal()] = builder.standardLaneWeight;
+        this.ringBuffer = new ShardedLogRingBuffer(
+            builder.ringBufferShards,
+            laneSizes,
+            laneWeights,
+            new KafkaEventLogHandler(),
+            builder.waitStrategy,
+            builder.consumerThreadMode,
+            builder.timestampMerge
+        );
+      } else {
+        this.ringBuffer = new ShardedLogRingBuffer(
+            builder.ringBufferShards,
+            builder.ringBufferSize,
+            new KafkaEventLogHandler(),
+            builder.waitStrategy,
+            builder.consumerThreadMode,
+            builder.timestampMerge
+        );
+      }
+    }
+    this.levelLanes = new int[LogLevel.values().length];
+    if (builder.priorityLanes && ringBuffer != null) {
+      for (LogLevel level : LogLevel.values()) {
+        levelLanes[level.ordinal()] = LogLane.of(level).ordinal();
+      }
+    }
+    this.backpressurePolicies = new BackpressurePolicy[LogLevel.values().length];
+    for (LogLevel level : LogLevel.values()) {
+      backpressurePolicies[level.ordinal()] =
+          builder.levelBackpressurePolicies.getOrDefault(level, builder.backpressurePolicy);
+    }
+    this.backpressureTimeoutNanos = builder.backpressureTimeout.toNanos();
+    this.backpressureCounters = new BackpressureCounters(
+        ringBuffer != null ? ringBuffer::getEvictedCount : offHeapRingBuffer::getEvictedCount);
+    this.overflowJournal = builder.overflowJournalDirectory != null ? openOverflowJournal(builder) : null;
+    this.consumerAssignedIds = builder.idAssignment == IdAssignment.CONSUMER && ringBuffer != null;
+    this.repeatedEventAggregator = builder.repeatedEventAggregation && ringBuffer != null
+        ? new RepeatedEventAggregator(builder.aggregationWindow, builder.aggregationMaxFingerprints, clock,
+        snowflake::next, this::sendDirect, ticker)
+        : null;
+    this.logMetricConverter = builder.metricDefinitions.isEmpty() ? null
+        : new LogMetricConverter(builder.metricDefinitions, builder.metricInterval, serviceName, clock,
+        snowflake::next, this::sendDirect, ticker);
+    this.tailSamplingBuffer = builder.tailSampling && ringBuffer != null
+        ? new TailSamplingBuffer(builder.tailSamplingLevel, builder.tailSamplingMaxEventsPerTrace,
+        builder.tailSamplingMaxTraces, builder.tailSamplingMaxEvents, builder.tailSamplingMaxBytes,
+        builder.tailSamplingIdleTimeout, builder.tailSamplingCompletionGrace, clock, ticker)
+        : null;
+  }
+
+  private OverflowJournal openOverflowJournal(Builder builder) {
+    try {
+      return new OverflowJournal(
+          builder.overflowJournalDirectory,
+          builder.overflowJournalSegmentSize,
+          builder.overflowJournalMaxSegments,
+          this::replay
+      );
+    } catch (IOException e) {
+      System.err.println("Failed to open overflow journal, overflowed events will be dropped: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * @return the ID for an event logged now, or {@link #UNASSIGNED_ID} if the consumer assigns it
+   */
+  long nextId() {
+    return consumerAssignedIds ? UNASSIGNED_ID : snowflake.next();
+  }
+
+  /**
+   * Publishes an event to the current thread's ring buffer shard in the level's lane (or the off-heap buffer),
+   * applying the level's {@link BackpressurePolicy} if it is full. Events the policy would drop
+   * go to the overflow journal instead, if one is configured.
+   * <p>
+   * With {@code arguments}, {@code message} is a pattern: heap slots keep a snapshot of the arguments and
+   * the consumer formats it; everywhere else it is formatted here.
+   *
+   * @param scopedTrace   false if {@code traceId} was generated for this event alone, so tail sampling does not hold it
+   * @param arguments     pattern arguments for deferred formatting, or null if {@code message} is final
+   * @param argumentCount number of {@code arguments} to use, excluding a trailing throwable
+   * @param keyValues     structured fields of a {@link LogEventBuilder} event, copied into the slot, or null
+   * @param context       fields of the caller's {@link com.bravos.steak.logging.starter.core.trace.LogContext}, or null
+   * @param timestampNanos nanoseconds within the timestamp's millisecond, negative if unknown
+   * @return true if the event was published, sent or journaled, false if it was dropped
+   */
+  boolean publish(LogLevel level, long id, String traceId, boolean scopedTrace, String eventName, String message,
+                  Object[] arguments, int argumentCount, Throwable throwable, Map<String, Object> metadata,
+                  KeyValues keyValues, Map<String, Object> context, long timestamp, int timestampNanos, Class<?> sourceClass) {
+    if (arguments != null
+        && (offHeapRingBuffer != null || argumentCount > AsyncLogRingBuffer.LogEvent.MAX_DEFERRED_ARGUMENTS)) {
+      message = LogMessageFormatter.format(formatBufferStrategy, message, arguments, argumentCount);
+      arguments = null;
+    }
+    AsyncLogRingBuffer shard = null;
+    RingSequencer sequencer;
+    if (offHeapRingBuffer != null) {
+      sequencer = offHeapRingBuffer.sequencer();
+    } else {
+      shard = ringBuffer.shard(levelLanes[level.ordinal()]);
+      sequencer = shard.sequencer();
+    }
+    long sequence = sequencer.tryNext(1);
+    if (sequence < 0) {
+      BackpressurePolicy policy = backpressurePolicies[level.ordinal()];
+      if (policy == BackpressurePolicy.CALLER_RUNS) {
+        backpressureCounters.callerRuns.increment();
+        if (id == UNASSIGNED_ID) {
+          id = snowflake.next();
+        }
+        AsyncLogRingBuffer.LogEvent event = new AsyncLogRingBuffer.LogEvent();
+        event.set(id, traceId, level.name(), eventName, message, serviceName, throwable, metadata, timestamp, sourceClass);
+        event.setScopedTrace(scopedTrace);
+        event.setContext(context);
+        event.setTimestampNanos(timestampNanos);
+        if (keyValues != null) {
+          event.setKeyValues(keyValues);
+        }
+        if (arguments != null) {
+          setArguments(event, arguments, argumentCount);
+        }
+        sendDirectSampled(event.toEventLog(), scopedTrace);
+        return true;
+      }
+      sequence = claimUnderBackpressure(sequencer, policy);
+      if (sequence < 0) {
+        if (overflowJournal == null) {
+          countDroppedNewest(policy);
+          return false;
+        }
+        if (arguments != null) {
+          message = LogMessageFormatter.format(formatBufferStrategy, message, arguments, argumentCount);
+        }
+        if (id == UNASSIGNED_ID) {
+          id = snowflake.next();
+        }
+        if (keyValues != null && !keyValues.isEmpty()) {
+          metadata = keyValues.toMap(metadata);
+        }
+        boolean journaled = overflowJournal.append(id, traceId, level.name(), eventName, message,
+            throwable != null ? throwable.toString() : null, metadata, context, timestamp, timestampNanos,
+            sourceClass.getName());
+        if (!journaled) {
+          countDroppedNewest(policy);
+        }
+        return journaled;
+      }
+    }
+
+    // Write straight into the pre-allocated slot, then make it visible to the consumer. The slot is
+    // published whatever happens: a claimed slot that is never published would stall the consumer for good
+    try {
+      if (shard != null) {
+        AsyncLogRingBuffer.LogEvent slot = shard.get(sequence);
+        slot.set(id, traceId, level.name(), eventName, message, serviceName, throwable, metadata, timestamp, sourceClass);
+        slot.setScopedTrace(scopedTrace);
+        slot.setContext(context);
+        slot.setTimestampNanos(timestampNanos);
+        if (keyValues != null) {
+          slot.setKeyValues(keyValues);
+        }
+        if (arguments != null) {
+          setArguments(slot, arguments, argumentCount);
+        }
+      } else {
+        String exceptionTrace = null;
+        try {
+          exceptionTrace = throwable != null ? throwable.toString() : null;
+        } catch (RuntimeException e) {
+          System.err.println("Failed to render exception of log event " + eventName + ": " + e.getMessage());
+        }
+        offHeapRingBuffer.write(sequence, id, traceId, level.name(), eventName, message, serviceName,
+            exceptionTrace, metadata, keyValues, context, timestamp, timestampNanos, sourceClass);
+      }
+    } finally {
+      sequencer.publish(sequence);
+    }
+    return true;
+  }
+
+  /**
+   * Snapshots the arguments into {@code event}; an argument whose {@code toString()} throws turns the
+   * event into a "failed to format" note instead of failing the log call.
+   */
+  private void setArguments(AsyncLogRingBuffer.LogEvent event, Object[] arguments, int argumentCount) {
+    try {
+      event.setArguments(arguments, argumentCount, formatBufferStrategy);
+    } catch (RuntimeException e) {
+      event.setFormatFailed(e);
+    }
+  }
+
+  private void countDroppedNewest(BackpressurePolicy policy) {
+    if (policy == BackpressurePolicy.DROP_NEWEST) {
+      backpressureCounters.droppedNewest.increment();
+    }
+  }
+
+  /**
+   * Claims a slot in a full shard under a {@link BackpressurePolicy#BLOCK}, {@link BackpressurePolicy#DROP_NEWEST}
+   * or {@link BackpressurePolicy#DROP_OLDEST} policy.
+   *
+   * @return the claimed sequence, or -1 if the event has to be dropped
+   */
+  private long claimUnderBackpressure(RingSequencer sequencer, BackpressurePolicy policy) {
+    if (policy == BackpressurePolicy.DROP_NEWEST) {
+      // Counted by the caller once it knows the overflow journal did not take the event
+      return -1;
+    }
+
+    boolean dropOldest = policy == BackpressurePolicy.DROP_OLDEST;
+    RingSequencer.EvictionRequest evictionRequest = dropOldest ? sequencer.requestEviction() : null;
+    long deadline = System.nanoTime() + backpressureTimeoutNanos;
+    long sequence;
+    do {
+      LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+      sequence = sequencer.tryNext(1);
+    } while (sequence < 0 && System.nanoTime() - deadline < 0);
+
+    if (dropOldest) {
+      // Only withdraws our own request if the consumer has not served it yet
+      sequencer.cancelEviction(evictionRequest);
+      if (sequence < 0) {
+        backpressureCounters.dropOldestTimeouts.increment();
+      }
+    } else if (sequence >= 0) {
+      backpressureCounters.blocked.increment();
+    } else {
+      backpressureCounters.blockTimeouts.increment();
+    }
+    return sequence;
+  }
+
+  /**
+   * Re-injects a journaled event, but only while the ring buffer is at least half empty,
+   * so replay never competes with live events for the last free slots.
+   *
+   * @return false if the ring buffer is still too full
+   */
+  private boolean replay(OverflowJournal.JournaledEvent event) {
+    AsyncLogRingBuffer shard = null;
+    RingSequencer sequencer;
+    if (offHeapRingBuffer != null) {
+      sequencer = offHeapRingBuffer.sequencer();
+    } else {
+      shard = ringBuffer.shard(levelLanes[LogLevel.valueOf(event.level()).ordinal()]);
+      sequencer = shard.sequencer();
+    }
+    if (sequencer.remainingCapacity() < sequencer.getBufferSize() / 2) {
+      return false;
+    }
+    long sequence = sequencer.tryNext(1);
+    if (sequence < 0) {
+      return false;
+    }
+    Class<?> sourceClass = resolveSourceClass(event.sourceClassName());
+    if (shard != null) {
+      AsyncLogRingBuffer.LogEvent slot = shard.get(sequence);
+      slot.set(event.id(), event.traceId(), event.level(), event.eventName(), event.message(), serviceName,
+          null, event.metadata(), event.timestamp(), sourceClass);
+      slot.setExceptionTrace(event.exceptionTrace());
+      slot.setContext(event.context());
+      slot.setTimestampNanos(event.timestampNanos());
+    } else {
+      offHeapRingBuffer.write(sequence, event.id(), event.traceId(), event.level(), event.eventName(), event.message(),
+          serviceName, event.exceptionTrace(), event.metadata(), null, event.context(), event.timestamp(),
+          event.timestampNanos(), sourceClass);
+    }
+    sequencer.publish(sequence);
+    return true;
+  }
+
+  /**
+   * Finds the class a journaled event was logged from among the registered loggers,
+   * falling back to loading it by name.
+   */
+  private Class<?> resolveSourceClass(String className) {
+    for (Class<?> clazz : eventLoggers.keySet()) {
+      if (clazz.getName().equals(className)) {
+        return clazz;
+      }
+    }
+    try {
+      return Class.forName(className, false, LoggerFactory.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return OverflowJournal.class;
+    }
+  }
+
+  /**
+   * {@link #sendDirect} for events that bypass the consumer, applying tail sampling if enabled.
+   *
+   * @param scopedTrace false if the event's trace ID is its own, so there is no trace to hold it for
+   */
+  private void sendDirectSampled(EventLog eventLog, boolean scopedTrace) {
+    if (tailSamplingBuffer != null && scopedTrace) {
+      if (tailSamplingBuffer.isHeld(eventLog.getLevel()) && tailSamplingBuffer.hold(eventLog)) {
+        return;
+      }
+      if (LogLevel.ERROR.name().equals(eventLog.getLevel())) {
+        List<EventLog> released = new ArrayList<>();
+        tailSamplingBuffer.releaseTo(eventLog.getTraceId(), released);
+        released.forEach(this::sendDirect);
+      }
+    }
+    sendDirect(eventLog);
+  }
+
+  private void sendDirect(EventLog eventLog) {
+    if (!sendToKafka) return;
+    kafkaTemplate.send(eventLogTopic, eventLog).whenComplete(KAFKA_SEND_COMPLETION);
   }
 
-  private void consumeLogEvent(AsyncLogRingBuffer.LogEvent event) {
-    if (sendToKafka) {
-      EventLog eventLog = event.toEventLog();
-      kafkaTemplate.send(eventLogTopic, eventLog)
-          .whenComplete((_, ex) -> {
-            if (ex != null) {
-              System.err.println("Failed to send event log to Kafka: " + ex.getMessage());
+  /**
+   * Accumulates events of one consumer batch, sends them at the end of the batch and flushes the producer
+   * once, so the batch leaves in as few produce requests as possible instead of waiting out the linger time.
+   * The consumer waits for the flush while producers keep filling the ring, so batches grow with load.
+   * Sends still go through {@link KafkaTemplate#send}, one future each, so the template's producer listener
+   * and observation apply. Only ever touched by the consumer thread.
+   */
+  private final class KafkaEventLogHandler implements AsyncLogRingBuffer.LogEventHandler {
+
+    private final List<EventLog> pendingEventLogs = new ArrayList<>();
+
+    @Override
+    public void onEvent(AsyncLogRingBuffer.LogEvent event, long sequence, boolean endOfBatch) {
+      if (!sendToKafka) return;
+      try {
+        if (event.getId() == UNASSIGNED_ID) {
+          // Only this thread draws from the generator here, so it stays uncontended
+          event.assignId(snowflake.next());
+        }
+        if (tailSamplingBuffer != null && event.isScopedTrace()) {
+          if (tailSamplingBuffer.isHeld(event.getLevel())) {
+            EventLog eventLog = event.toEventLog();
+            if (!tailSamplingBuffer.hold(eventLog)) {
+              pendingEventLogs.add(eventLog);
             }
-          });
+            return;
+          }
+          if (LogLevel.ERROR.name().equals(event.getLevel())) {
+            // The trace failed: its held events go out ahead of the error
+            tailSamplingBuffer.releaseTo(event.getTraceId(), pendingEventLogs);
+          }
+        }
+        if (repeatedEventAggregator == null) {
+          pendingEventLogs.add(event.toEventLog());
+        } else {
+          EventLog eventLog = repeatedEventAggregator.offer(event, pendingEventLogs);
+          if (eventLog != null) {
+            pendingEventLogs.add(eventLog);
+          }
+        }
+      } finally {
+        if (endOfBatch) {
+          flush();
+        }
+      }
+    }
+
+    @Override
+    public void onShutdown() {
+      flush();
+    }
+
+    private void flush() {
+      if (pendingEventLogs.isEmpty()) return;
+      try {
+        for (EventLog eventLog : pendingEventLogs) {
+          try {
+            kafkaTemplate.send(eventLogTopic, eventLog).whenComplete(KAFKA_SEND_COMPLETION);
+          } catch (Exception e) {
+            System.err.println("Failed to send event log to Kafka: " + e.getMessage());
+          }
+        }
+        kafkaTemplate.flush();
+      } catch (Exception e) {
+        System.err.println("Failed to flush event log batch to Kafka: " + e.getMessage());
+      } finally {
+        pendingEventLogs.clear();
+      }
+    }
+  }
+
+  /**
+   * Sends pre-encoded EventLog JSON from the off-heap buffer as raw bytes, without building EventLog objects.
+   * Batches like {@link KafkaEventLogHandler} and adds the same type header the JSON serializer would.
+   * Only ever touched by the consumer thread.
+   */
+  private final class KafkaSerializedEventLogHandler implements OffHeapLogRingBuffer.SerializedLogEventHandler {
+
+    private final List<Header> headers = List.of(
+        new RecordHeader("__TypeId__", EventLog.class.getName().getBytes(StandardCharsets.UTF_8)));
+    private final List<byte[]> pendingPayloads = new ArrayList<>();
+    private final KafkaTemplate<String, byte[]> template;
+    /**
+     * Whether {@link #template} was derived here and must be destroyed on shutdown.
+     */
+    private final boolean ownsTemplate;
+
+    KafkaSerializedEventLogHandler(KafkaTemplate<String, byte[]> serializedKafkaTemplate) {
+      this.ownsTemplate = serializedKafkaTemplate == null;
+      this.template = ownsTemplate ? deriveSerializedKafkaTemplate(kafkaTemplate) : serializedKafkaTemplate;
+    }
+
+    @Override
+    public void onEvent(MemorySegment payload, long sequence, boolean endOfBatch) {
+      if (!sendToKafka) return;
+      try {
+        // Empty records are events that could not be encoded
+        if (payload.byteSize() > 0) {
+          // The slot is reused once this returns, so the payload is copied
+          pendingPayloads.add(payload.toArray(ValueLayout.JAVA_BYTE));
+        }
+      } finally {
+        if (endOfBatch) {
+          flush();
+        }
+      }
+    }
+
+    @Override
+    public void onShutdown() {
+      flush();
+      if (ownsTemplate) {
+        template.destroy();
+      }
+    }
+
+    private void flush() {
+      if (pendingPayloads.isEmpty()) return;
+      try {
+        for (byte[] value : pendingPayloads) {
+          try {
+            template.send(new ProducerRecord<>(eventLogTopic, null, null, null, value, headers))
+                .whenComplete(KAFKA_SEND_COMPLETION);
+          } catch (Exception e) {
+            System.err.println("Failed to send event log to Kafka: " + e.getMessage());
+          }
+        }
+        template.flush();
+      } catch (Exception e) {
+        System.err.println("Failed to flush event log batch to Kafka: " + e.getMessage());
+      } finally {
+        pendingPayloads.clear();
+      }
+    }
+  }
+
+  /**
+   * Byte-array template on a copy of {@code template}'s producer factory with only the value serializer
+   * overridden, so listeners, post-processors and the transaction setup of the factory are kept.
+   * Requires the factory's value serializer to be configured by property, as Spring Boot does.
+   */
+  @SuppressWarnings("unchecked")
+  private static KafkaTemplate<String, byte[]> deriveSerializedKafkaTemplate(KafkaTemplate<String, Object> template) {
+    ProducerFactory<String, byte[]> producerFactory =
+        (ProducerFactory<String, byte[]>) (ProducerFactory<?, ?>) template.getProducerFactory();
+    KafkaTemplate<String, byte[]> serialized = new KafkaTemplate<>(producerFactory,
+        Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+    serialized.setAllowNonTransactional(template.isAllowNonTransactional());
+    return serialized;
+  }
+
+  // ==================== LEVELS ====================
+
+  /**
+   * Sets the level threshold for a class or package and everything below it: events of this level
+   * and more severe ones are logged. Takes effect on existing loggers on their next call.
+   *
+   * @param name  fully qualified class or package name
+   * @param level the threshold, or null to fall back to the parent name or the global switches
+   */
+  public synchronized void setLevel(String name, LogLevel level) {
+    if (level == null) {
+      loggerLevels.remove(name);
+    } else {
+      loggerLevels.put(name, level);
+    }
+    levelGeneration++;
+  }
+
+  /**
+   * @return the configured level thresholds by class or package name
+   */
+  public Map<String, LogLevel> getLevels() {
+    return Map.copyOf(loggerLevels);
+  }
+
+  /**
+   * Resolves the enabled levels of a class from the most specific configured name
+   * (class, enclosing class, then each parent package), or the global switches if none matches.
+   * Levels held by tail sampling are not included; loggers capture those on top.
+   *
+   * @return a bit mask with bit {@code 1 << level.ordinal()} set for each enabled level
+   */
+  int resolveEnabledLevels(Class<?> clazz) {
+    if (!loggerLevels.isEmpty()) {
+      String name = clazz.getName();
+      while (true) {
+        LogLevel threshold = loggerLevels.get(name);
+        if (threshold != null) {
+          int mask = 0;
+          for (LogLevel level : LogLevel.values()) {
+            if (level.ordinal() >= threshold.ordinal()) {
+              mask |= 1 << level.ordinal();
+            }
+          }
+          return mask;
+        }
+        int separator = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+        if (separator < 0) {
+          break;
+        }
+        name = name.substring(0, separator);
+      }
+    }
+    int mask = 0;
+    if (debugEnabled) mask |= 1 << LogLevel.DEBUG.ordinal();
+    if (infoEnabled) mask |= 1 << LogLevel.INFO.ordinal();
+    if (warnEnabled) mask |= 1 << LogLevel.WARN.ordinal();
+    if (errorEnabled) mask |= 1 << LogLevel.ERROR.ordinal();
+    return mask;
+  }
+
+  /**
+   * Signals that a trace has finished, so events held for it by tail sampling can be discarded
+   * without waiting for the idle timeout. No-op if tail sampling is disabled.
+   */
+  public void completeTrace(String traceId) {
+    if (tailSamplingBuffer != null && traceId != null) {
+      tailSamplingBuffer.completeTrace(traceId);
     }
   }
 
@@ -73,7 +718,25 @@ public final class LoggerFactory {
   }
 
   public void shutdown() {
-    ringBuffer.shutdown();
+    if (overflowJournal != null) {
+      overflowJournal.shutdown();
+    }
+    if (ringBuffer != null) {
+      ringBuffer.shutdown();
+    } else {
+      offHeapRingBuffer.shutdown();
+    }
+    if (repeatedEventAggregator != null) {
+      repeatedEventAggregator.shutdown();
+    }
+    if (logMetricConverter != null) {
+      logMetricConverter.shutdown();
+    }
+    if (tailSamplingBuffer != null) {
+      tailSamplingBuffer.shutdown();
+    }
+    clock.stop();
+    ticker.shutdown();
     executorService.shutdown();
     try {
       if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -93,6 +756,8 @@ public final class LoggerFactory {
     private String serviceName;
     private KafkaTemplate<String, Object> kafkaTemplate;
     private Snowflake snowflake;
+    private TraceIdGenerator traceIdGenerator = new RandomTraceIdGenerator();
+    private LogClock clock = new SystemLogClock();
     private String eventLogTopic = "event.log";
     private boolean infoEnabled = true;
     private boolean debugEnabled = false;
@@ -100,7 +765,43 @@ public final class LoggerFactory {
     private boolean warnEnabled = true;
     private boolean consoleEnabled = true;
     private boolean sendToKafka = true;
-    private int ringBufferSize = 1024 * 16; // 16K entries
+    private final Map<String, LogLevel> loggerLevels = new HashMap<>();
+    private final Map<String, SamplingPolicy> samplingPolicies = new HashMap<>();
+    private final Map<String, MetricDefinition> metricDefinitions = new HashMap<>();
+    private Duration metricInterval = Duration.ofMinutes(1);
+    private int ringBufferSize = 1024 * 16; // 16K entries per shard
+    private int ringBufferShards = 1;
+    private KafkaTemplate<String, byte[]> serializedKafkaTemplate;
+    private boolean timestampMerge = false;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.DROP_NEWEST;
+    private final Map<LogLevel, BackpressurePolicy> levelBackpressurePolicies = new EnumMap<>(LogLevel.class);
+    private Duration backpressureTimeout = Duration.ofMillis(10);
+    private RingBufferMode ringBufferMode = RingBufferMode.HEAP;
+    private long offHeapCapacityBytes = 16L * 1024 * 1024; // 16 MB
+    private int offHeapSlotSize = 1024;
+    private boolean deferredFormatting = false;
+    private FormatBufferStrategy formatBufferStrategy = FormatBufferStrategy.ADAPTIVE;
+    private IdAssignment idAssignment = IdAssignment.CALLER;
+    private boolean repeatedEventAggregation = false;
+    private Duration aggregationWindow = Duration.ofSeconds(1);
+    private int aggregationMaxFingerprints = 1024;
+    private boolean tailSampling = false;
+    private LogLevel tailSamplingLevel = LogLevel.DEBUG;
+    private int tailSamplingMaxEventsPerTrace = 256;
+    private int tailSamplingMaxTraces = 10_000;
+    private long tailSamplingMaxEvents = 10_000;
+    private long tailSamplingMaxBytes = 8L * 1024 * 1024; // 8 MB
+    private Duration tailSamplingIdleTimeout = Duration.ofSeconds(30);
+    private Duration tailSamplingCompletionGrace = Duration.ofSeconds(1);
+    private boolean priorityLanes = false;
+    private int criticalLaneSize = 1024 * 4; // 4K entries per shard
+    private int criticalLaneWeight = 4;
+    private int standardLaneWeight = 1;
+    private WaitStrategy waitStrategy = new PhasedBackoffWaitStrategy();
+    private ConsumerThreadMode consumerThreadMode = ConsumerThreadMode.PLATFORM;
+    private Path overflowJournalDirectory;
+    private int overflowJournalSegmentSize = 16 * 1024 * 1024; // 16 MB
+    private int overflowJournalMaxSegments = 8;
 
     public Builder serviceName(String serviceName) {
       this.serviceName = serviceName;
@@ -117,6 +818,24 @@ public final class LoggerFactory {
       return this;
     }
 
+    /**
+     * Source of trace IDs for events logged outside a request context.
+     */
+    public Builder traceIdGenerator(TraceIdGenerator traceIdGenerator) {
+      this.traceIdGenerator = traceIdGenerator;
+      return this;
+    }
+
+    /**
+     * Source of event timestamps. The factory starts it on its ticker when built and stops it on
+     * {@link LoggerFactory#shutdown()}; a stopped {@link com.bravos.steak.logging.starter.core.clock.CoarseLogClock}
+     * falls back to the system clock.
+     */
+    public Builder clock(LogClock clock) {
+      this.clock = clock;
+      return this;
+    }
+
     public Builder eventLogTopic(String eventLogTopic) {
       this.eventLogTopic = eventLogTopic;
       return this;
@@ -152,11 +871,305 @@ public final class LoggerFactory {
       return this;
     }
 
+    /**
+     * Level threshold for a class or package and everything below it, overriding the global level switches.
+     */
+    public Builder level(String name, LogLevel level) {
+      this.loggerLevels.put(name, level);
+      return this;
+    }
+
+    /**
+     * Level thresholds by class or package name.
+     */
+    public Builder levels(Map<String, LogLevel> levels) {
+      this.loggerLevels.putAll(levels);
+      return this;
+    }
+
+    /**
+     * Sampling or rate limit for one event name. Use a separate policy instance per name.
+     */
+    public Builder sampling(String eventName, SamplingPolicy policy) {
+      this.samplingPolicies.put(eventName, policy);
+      return this;
+    }
+
+    public Builder samplingPolicies(Map<String, SamplingPolicy> policies) {
+      this.samplingPolicies.putAll(policies);
+      return this;
+    }
+
+    /**
+     * Turns events of this name into metrics instead of publishing them, see {@link LogMetricConverter}.
+     */
+    public Builder metricEvent(String eventName, MetricDefinition definition) {
+      this.metricDefinitions.put(eventName, definition);
+      return this;
+    }
+
+    public Builder metricEvents(Map<String, MetricDefinition> definitions) {
+      this.metricDefinitions.putAll(definitions);
+      return this;
+    }
+
+    /**
+     * How often metric summaries are sent.
+     */
+    public Builder metricInterval(Duration metricInterval) {
+      this.metricInterval = metricInterval;
+      return this;
+    }
+
     public Builder ringBufferSize(int ringBufferSize) {
       this.ringBufferSize = ringBufferSize;
       return this;
     }
 
+    /**
+     * Number of ring buffer shards producers are striped over, must be a power of 2.
+     * Each shard has {@link #ringBufferSize} entries. Must be 1 in {@link RingBufferMode#OFF_HEAP} mode.
+     */
+    public Builder ringBufferShards(int ringBufferShards) {
+      this.ringBufferShards = ringBufferShards;
+      return this;
+    }
+
+    /**
+     * Whether the consumer merges events of all shards by timestamp, keeping approximate ordering.
+     */
+    public Builder timestampMerge(boolean timestampMerge) {
+      this.timestampMerge = timestampMerge;
+      return this;
+    }
+
+    /**
+     * Policy applied when a shard is full, for every level without its own policy.
+     */
+    public Builder backpressurePolicy(BackpressurePolicy backpressurePolicy) {
+      this.backpressurePolicy = backpressurePolicy;
+      return this;
+    }
+
+    /**
+     * Policy applied when a shard is full, for events of the given level.
+     */
+    public Builder backpressurePolicy(LogLevel level, BackpressurePolicy backpressurePolicy) {
+      this.levelBackpressurePolicies.put(level, backpressurePolicy);
+      return this;
+    }
+
+    /**
+     * How long {@link BackpressurePolicy#BLOCK} and {@link BackpressurePolicy#DROP_OLDEST}
+     * wait for a free slot before dropping the event.
+     */
+    public Builder backpressureTimeout(Duration backpressureTimeout) {
+      this.backpressureTimeout = backpressureTimeout;
+      return this;
+    }
+
+    public Builder ringBufferMode(RingBufferMode ringBufferMode) {
+      this.ringBufferMode = ringBufferMode;
+      return this;
+    }
+
+    /**
+     * Template for the pre-encoded JSON in {@link RingBufferMode#OFF_HEAP} mode, with a byte-array value
+     * serializer. If unset, one is derived from the {@link #kafkaTemplate}'s producer factory.
+     */
+    public Builder serializedKafkaTemplate(KafkaTemplate<String, byte[]> serializedKafkaTemplate) {
+      this.serializedKafkaTemplate = serializedKafkaTemplate;
+      return this;
+    }
+
+    /**
+     * Off-heap memory reserved for queued events in {@link RingBufferMode#OFF_HEAP} mode.
+     */
+    public Builder offHeapCapacityBytes(long offHeapCapacityBytes) {
+      this.offHeapCapacityBytes = offHeapCapacityBytes;
+      return this;
+    }
+
+    /**
+     * Maximum encoded size of one event in {@link RingBufferMode#OFF_HEAP} mode; larger events are truncated.
+     */
+    public Builder offHeapSlotSize(int offHeapSlotSize) {
+      this.offHeapSlotSize = offHeapSlotSize;
+      return this;
+    }
+
+    /**
+     * Whether parameterized messages are formatted on the consumer thread instead of the caller.
+     * Slots keep the pattern and a snapshot of the arguments: immutable values by reference,
+     * anything else rendered to a string on the caller. Applies to {@link RingBufferMode#HEAP}.
+     */
+    public Builder deferredFormatting(boolean deferredFormatting) {
+      this.deferredFormatting = deferredFormatting;
+      return this;
+    }
+
+    /**
+     * Where message formatting gets its reusable buffers from. Each factory keeps its own strategy;
+     * the buffers themselves are shared.
+     */
+    public Builder formatBufferStrategy(FormatBufferStrategy formatBufferStrategy) {
+      this.formatBufferStrategy = formatBufferStrategy;
+      return this;
+    }
+
+    /**
+     * Which thread takes event IDs from the {@link Snowflake}, see {@link IdAssignment}.
+     */
+    public Builder idAssignment(IdAssignment idAssignment) {
+      this.idAssignment = idAssignment;
+      return this;
+    }
+
+    /**
+     * Whether repeats of an event within {@link #aggregationWindow} are collapsed into one summary,
+     * see {@link RepeatedEventAggregator}. Applies to {@link RingBufferMode#HEAP}.
+     */
+    public Builder repeatedEventAggregation(boolean repeatedEventAggregation) {
+      this.repeatedEventAggregation = repeatedEventAggregation;
+      return this;
+    }
+
+    public Builder aggregationWindow(Duration aggregationWindow) {
+      this.aggregationWindow = aggregationWindow;
+      return this;
+    }
+
+    /**
+     * Fingerprints tracked at once; the least recently seen is closed early when exceeded.
+     */
+    public Builder aggregationMaxFingerprints(int aggregationMaxFingerprints) {
+      this.aggregationMaxFingerprints = aggregationMaxFingerprints;
+      return this;
+    }
+
+    /**
+     * Whether events up to {@link #tailSamplingLevel} are held per trace and only sent if the trace
+     * logs an ERROR, see {@link TailSamplingBuffer}. Applies to {@link RingBufferMode#HEAP}.
+     */
+    public Builder tailSampling(boolean tailSampling) {
+      this.tailSampling = tailSampling;
+      return this;
+    }
+
+    /**
+     * Most severe level held by tail sampling: {@link LogLevel#DEBUG} or {@link LogLevel#INFO}.
+     */
+    public Builder tailSamplingLevel(LogLevel tailSamplingLevel) {
+      this.tailSamplingLevel = tailSamplingLevel;
+      return this;
+    }
+
+    public Builder tailSamplingMaxEventsPerTrace(int tailSamplingMaxEventsPerTrace) {
+      this.tailSamplingMaxEventsPerTrace = tailSamplingMaxEventsPerTrace;
+      return this;
+    }
+
+    /**
+     * Traces held at a time, and failed traces remembered; the least recently active trace is discarded
+     * when exceeded.
+     */
+    public Builder tailSamplingMaxTraces(int tailSamplingMaxTraces) {
+      this.tailSamplingMaxTraces = tailSamplingMaxTraces;
+      return this;
+    }
+
+    /**
+     * Events held across all traces; the least recently active trace is discarded when exceeded.
+     */
+    public Builder tailSamplingMaxEvents(long tailSamplingMaxEvents) {
+      this.tailSamplingMaxEvents = tailSamplingMaxEvents;
+      return this;
+    }
+
+    /**
+     * Approximate heap held across all traces, enforced like {@link #tailSamplingMaxEvents}.
+     */
+    public Builder tailSamplingMaxBytes(long tailSamplingMaxBytes) {
+      this.tailSamplingMaxBytes = tailSamplingMaxBytes;
+      return this;
+    }
+
+    public Builder tailSamplingIdleTimeout(Duration tailSamplingIdleTimeout) {
+      this.tailSamplingIdleTimeout = tailSamplingIdleTimeout;
+      return this;
+    }
+
+    /**
+     * Delay between {@link LoggerFactory#completeTrace} and discarding, for events still in the ring buffer.
+     */
+    public Builder tailSamplingCompletionGrace(Duration tailSamplingCompletionGrace) {
+      this.tailSamplingCompletionGrace = tailSamplingCompletionGrace;
+      return this;
+    }
+
+    /**
+     * Whether ERROR/WARN and INFO/DEBUG events get separate ring buffers ({@link LogLane}s),
+     * so chatter can never take the slots of critical events. Applies to {@link RingBufferMode#HEAP}.
+     */
+    public Builder priorityLanes(boolean priorityLanes) {
+      this.priorityLanes = priorityLanes;
+      return this;
+    }
+
+    /**
+     * Entries per shard of the {@link LogLane#CRITICAL} lane, must be a power of 2.
+     * The {@link LogLane#STANDARD} lane uses {@link #ringBufferSize}.
+     */
+    public Builder criticalLaneSize(int criticalLaneSize) {
+      this.criticalLaneSize = criticalLaneSize;
+      return this;
+    }
+
+    /**
+     * Share of each consumer batch the {@link LogLane#CRITICAL} lane may take, relative to {@link #standardLaneWeight}.
+     */
+    public Builder criticalLaneWeight(int criticalLaneWeight) {
+      this.criticalLaneWeight = criticalLaneWeight;
+      return this;
+    }
+
+    public Builder standardLaneWeight(int standardLaneWeight) {
+      this.standardLaneWeight = standardLaneWeight;
+      return this;
+    }
+
+    public Builder waitStrategy(WaitStrategy waitStrategy) {
+      this.waitStrategy = waitStrategy;
+      return this;
+    }
+
+    public Builder consumerThreadMode(ConsumerThreadMode consumerThreadMode) {
+      this.consumerThreadMode = consumerThreadMode;
+      return this;
+    }
+
+    /**
+     * Enables the overflow journal: events the backpressure policy would drop are written to
+     * memory-mapped segment files in this directory and replayed once the ring buffer drains.
+     */
+    public Builder overflowJournalDirectory(Path overflowJournalDirectory) {
+      this.overflowJournalDirectory = overflowJournalDirectory;
+      return this;
+    }
+
+    public Builder overflowJournalSegmentSize(int overflowJournalSegmentSize) {
+      this.overflowJournalSegmentSize = overflowJournalSegmentSize;
+      return this;
+    }
+
+    /**
+     * Segment files kept on disk; when exceeded the oldest segment and its events are evicted.
+     */
+    public Builder overflowJournalMaxSegments(int overflowJournalMaxSegments) {
+      this.overflowJournalMaxSegments = overflowJournalMaxSegments;
+      return this;
+    }
+
     public LoggerFactory build() {
       return new LoggerFactory(this);
     }
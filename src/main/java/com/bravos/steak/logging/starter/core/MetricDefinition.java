@@ -0,0 +1,37 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.util.Arrays;
+
+/**
+ * How events of one name are turned into metrics by {@link LogMetricConverter}: always counted, and
+ * optionally a fixed-bucket histogram over a numeric metadata (or structured field) value.
+ *
+ * @param valueKey     metadata key of the measured value, or null to only count
+ * @param bucketBounds ascending upper bounds of the histogram buckets; values above the last fall into an overflow bucket
+ */
+public record MetricDefinition(String valueKey, double[] bucketBounds) {
+
+  public MetricDefinition {
+    if (valueKey != null) {
+      if (bucketBounds == null || bucketBounds.length == 0) {
+        throw new IllegalArgumentException("Histogram of " + valueKey + " needs at least one bucket bound");
+      }
+      bucketBounds = bucketBounds.clone();
+      for (int i = 1; i < bucketBounds.length; i++) {
+        if (bucketBounds[i] <= bucketBounds[i - 1]) {
+          throw new IllegalArgumentException("Bucket bounds of " + valueKey + " must be ascending: "
+              + Arrays.toString(bucketBounds));
+        }
+      }
+    }
+  }
+
+  public static MetricDefinition counter() {
+    return new MetricDefinition(null, null);
+  }
+
+  public static MetricDefinition histogram(String valueKey, double... bucketBounds) {
+    return new MetricDefinition(valueKey, bucketBounds);
+  }
+
+}
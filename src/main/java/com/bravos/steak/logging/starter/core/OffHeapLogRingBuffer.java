@@ -0,0 +1,241 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Ring buffer whose slots live in off-heap memory.
+ * Producers encode each event as EventLog JSON straight into a fixed-size slot, so the buffer holds
+ * no references to messages, metadata or throwables and a lagging consumer cannot promote them to
+ * the old generation. The consumer hands the encoded bytes to a {@link SerializedLogEventHandler}.
+ * <p>
+ * Slot layout: a 4-byte payload length followed by the UTF-8 JSON payload.
+ */
+public final class OffHeapLogRingBuffer {
+
+  /**
+   * Smallest slot that still fits a truncated event.
+   */
+  public static final int MIN_SLOT_SIZE = 512;
+
+  private static final int LENGTH_HEADER = Integer.BYTES;
+
+  private final MemorySegment slots;
+  private final int slotSize;
+  private final RingSequencer sequencer;
+  private final SerializedLogEventHandler handler;
+  private final WaitStrategy waitStrategy;
+  private final Thread consumerThread;
+  private final LongSupplier publishedCursor = this::publishedSequence;
+  private final BooleanSupplier runningCheck = () -> this.running;
+  private volatile boolean running = true;
+  /**
+   * Consumer-owned: the next sequence to consume and the highest one known to be published.
+   */
+  private long nextSequence;
+  private long publishedSequence = -1;
+
+  /**
+   * @param capacityBytes total off-heap memory for slots; rounded down to a power-of-2 slot count
+   * @param slotSize      bytes per event, at least {@link #MIN_SLOT_SIZE}; larger events are truncated
+   * @param handler       receives the encoded events on the consumer thread
+   * @param waitStrategy  how the consumer waits when the buffer is empty
+   * @param threadMode    kind of consumer thread
+   */
+  public OffHeapLogRingBuffer(long capacityBytes,
+                              int slotSize,
+                              SerializedLogEventHandler handler,
+                              WaitStrategy waitStrategy,
+                              ConsumerThreadMode threadMode) {
+    if (slotSize < MIN_SLOT_SIZE || slotSize % Long.BYTES != 0) {
+      throw new IllegalArgumentException("Slot size must be a multiple of 8 and at least " + MIN_SLOT_SIZE);
+    }
+    long slotCount = Long.highestOneBit(capacityBytes / slotSize);
+    if (slotCount < 2 || slotCount > (1 << 30)) {
+      throw new IllegalArgumentException("Capacity must hold between 2 and 2^30 slots");
+    }
+    this.slotSize = slotSize;
+    this.sequencer = new RingSequencer((int) slotCount, waitStrategy);
+    // Auto arena: freed with this buffer, so late producers never hit a closed segment
+    this.slots = Arena.ofAuto().allocate(slotCount * slotSize, Long.BYTES);
+    this.handler = handler;
+    this.waitStrategy = waitStrategy;
+    this.consumerThread = switch (threadMode) {
+      case VIRTUAL -> Thread.ofVirtual()
+          .name("async-log-consumer")
+          .unstarted(this::consumeLoop);
+      case PLATFORM -> Thread.ofPlatform()
+          .name("async-log-consumer")
+          .daemon(true)
+          .unstarted(this::consumeLoop);
+    };
+    this.consumerThread.start();
+  }
+
+  // ==================== PRODUCER ====================
+
+  /**
+   * Claims the next slot. Fill it with {@link #write}, then {@link #publish(long)} it.
+   *
+   * @return the claimed sequence, or -1 if the buffer is full
+   */
+  public long tryNext() {
+    return sequencer.tryNext(1);
+  }
+
+  /**
+   * Encodes an event into a claimed slot. If it does not fit, or a metadata, field or context value's
+   * {@code toString()} throws, metadata, context and the exception trace are left out and the message
+   * is cut to the slot size. Never throws, so the caller always gets to publish the slot.
+   *
+   * @return true if the event was encoded completely, false if it was truncated or left empty
+   */
+  public boolean write(long sequence,
+                       long id,
+                       String traceId,
+                       String level,
+                       String eventName,
+                       String message,
+                       String service,
+                       String exceptionTrace,
+                       Map<String, Object> metadata,
+                       KeyValues keyValues,
+                       Map<String, Object> context,
+                       long timestamp,
+                       int timestampNanos,
+                       Class<?> sourceClass) {
+    long base = (long) sequencer.index(sequence) * slotSize;
+    long start = base + LENGTH_HEADER;
+    long limit = base + slotSize;
+    long end;
+    try {
+      end = EventLogJsonEncoder.encode(slots, start, limit,
+          id, traceId, level, eventName, message, service, exceptionTrace, metadata, keyValues, context, timestamp, timestampNanos, sourceClass);
+    } catch (RuntimeException e) {
+      System.err.println("Failed to encode log event " + eventName + ", sending it without metadata: " + e.getMessage());
+      end = -1;
+    }
+    boolean complete = end >= 0;
+    if (!complete) {
+      try {
+        end = EventLogJsonEncoder.encodeTruncated(slots, start, limit,
+            id, traceId, level, eventName, message, service, timestamp, timestampNanos, sourceClass);
+      } catch (RuntimeException e) {
+        System.err.println("Failed to encode log event " + eventName + ", dropping it: " + e.getMessage());
+        // Empty record: published like any other so the consumer moves past it, but not sent
+        end = start;
+      }
+    }
+    slots.set(ValueLayout.JAVA_INT, base, (int) (end - start));
+    return complete;
+  }
+
+  public void publish(long sequence) {
+    sequencer.publish(sequence);
+  }
+
+  public long getEvictedCount() {
+    return sequencer.getEvictedCount();
+  }
+
+  RingSequencer sequencer() {
+    return sequencer;
+  }
+
+  // ==================== CONSUMER ====================
+
+  private void consumeLoop() {
+    while (running) {
+      long availableSequence = waitStrategy.waitFor(nextSequence, publishedCursor, runningCheck);
+      if (availableSequence >= nextSequence) {
+        nextSequence = drainBatch(nextSequence);
+      }
+    }
+
+    // Drain remaining events on shutdown
+    long drained;
+    while ((drained = drainBatch(nextSequence)) != nextSequence) {
+      nextSequence = drained;
+    }
+    try {
+      handler.onShutdown();
+    } catch (Exception e) {
+      System.err.println("Error shutting down serialized log event handler: " + e.getMessage());
+    }
+  }
+
+  /**
+   * The wait strategy's cursor: claimed slots that are not published yet do not count,
+   * so the consumer keeps waiting instead of spinning on them.
+   */
+  private long publishedSequence() {
+    publishedSequence = sequencer.highestPublishedSequence(Math.max(nextSequence, publishedSequence + 1));
+    return publishedSequence;
+  }
+
+  /**
+   * @return the next sequence to consume
+   */
+  private long drainBatch(long nextSequence) {
+    long availableSequence = publishedSequence();
+    if (availableSequence < nextSequence) {
+      return nextSequence;
+    }
+    // Discard the oldest events first if producers asked for room (drop-oldest backpressure)
+    long sequence = nextSequence + sequencer.takeEvictions(availableSequence - nextSequence + 1);
+    if (sequence > nextSequence) {
+      // Hand the evicted slots to the waiting producers now, not after this batch is delivered
+      sequencer.release(sequence - 1);
+    }
+    for (; sequence <= availableSequence; sequence++) {
+      long base = (long) sequencer.index(sequence) * slotSize;
+      int length = slots.get(ValueLayout.JAVA_INT, base);
+      try {
+        handler.onEvent(slots.asSlice(base + LENGTH_HEADER, length), sequence, sequence == availableSequence);
+      } catch (Exception e) {
+        System.err.println("Error consuming serialized log event: " + e.getMessage());
+      }
+    }
+    sequencer.release(availableSequence);
+    return availableSequence + 1;
+  }
+
+  public void shutdown() {
+    running = false;
+    waitStrategy.signalAllWhenBlocking();
+    LockSupport.unpark(consumerThread);
+    try {
+      consumerThread.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Handler for events encoded as EventLog JSON.
+   */
+  @FunctionalInterface
+  public interface SerializedLogEventHandler {
+
+    /**
+     * @param payload    the UTF-8 JSON bytes; only valid for the duration of the call
+     * @param sequence   the ring sequence of the event
+     * @param endOfBatch true if this is the last event currently available
+     */
+    void onEvent(MemorySegment payload, long sequence, boolean endOfBatch);
+
+    /**
+     * Called once on the consumer thread after the remaining events were drained on shutdown.
+     */
+    default void onShutdown() {
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.model.EventLog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Consumer-side collapsing of repeated events. Events are fingerprinted by level, event name, source class
+ * and message template (the pattern with deferred formatting, otherwise the formatted message). The first
+ * event of a fingerprint is emitted as usual and opens a window; repeats within the window are only counted.
+ * When the window closes, one summary event reports the repeats: their {@code count} and the timestamps of
+ * the first and last one as {@code firstSeen} and {@code lastSeen} metadata.
+ * <p>
+ * The fingerprint table holds at most {@code maxFingerprints} windows in LRU order; evicting a window
+ * emits its summary early. The factory's {@link LogTicker} closes windows even when no further events arrive.
+ * Summaries are built under the aggregator's lock but sent after releasing it.
+ */
+public final class RepeatedEventAggregator {
+
+  public static final String COUNT_KEY = "count";
+  public static final String FIRST_SEEN_KEY = "firstSeen";
+  public static final String LAST_SEEN_KEY = "lastSeen";
+
+  private final long windowMillis;
+  private final int maxFingerprints;
+  private final LogClock clock;
+  private final LongSupplier idGenerator;
+  private final Consumer<EventLog> sink;
+  private final LinkedHashMap<Fingerprint, Window> windows = new LinkedHashMap<>(16, 0.75f, true);
+  private final LongAdder absorbedEvents = new LongAdder();
+  private final ScheduledFuture<?> tickTask;
+
+  /**
+   * @param window          how long repeats of a fingerprint are collapsed into one summary
+   * @param maxFingerprints windows kept before the least recently used one is closed
+   * @param idGenerator     IDs for summary events
+   * @param sink            receives summary events closed by the ticker or on shutdown
+   */
+  public RepeatedEventAggregator(Duration window, int maxFingerprints, LogClock clock,
+                                 LongSupplier idGenerator, Consumer<EventLog> sink, LogTicker ticker) {
+    this.windowMillis = window.toMillis();
+    this.maxFingerprints = maxFingerprints;
+    this.clock = clock;
+    this.idGenerator = idGenerator;
+    this.sink = sink;
+    this.tickTask = ticker.schedule("repeated-event-aggregator", Duration.ofMillis(Math.max(1, windowMillis)),
+        () -> closeExpired(clock.currentTimeMillis()));
+  }
+
+  /**
+   * Called on the consumer thread for every event. Summaries of windows the event closes, or evicts,
+   * go to {@code summaries} so the consumer sends them with its batch.
+   *
+   * @return the event to send, or null if it was absorbed as a repeat
+   */
+  synchronized EventLog offer(AsyncLogRingBuffer.LogEvent event, List<EventLog> summaries) {
+    Fingerprint fingerprint = new Fingerprint(
+        event.getLevel(), event.getEventName(), event.getSourceClass(), event.getMessage());
+    long timestamp = event.getTimestamp();
+    Window window = windows.get(fingerprint);
+    if (window != null) {
+      if (timestamp - window.start < windowMillis) {
+        window.absorb(timestamp);
+        absorbedEvents.increment();
+        return null;
+      }
+      windows.remove(fingerprint);
+      addSummary(window, summaries);
+    }
+    EventLog eventLog = event.toEventLog();
+    windows.put(fingerprint, new Window(eventLog, timestamp));
+    if (windows.size() > maxFingerprints) {
+      Iterator<Window> eldest = windows.values().iterator();
+      addSummary(eldest.next(), summaries);
+      eldest.remove();
+    }
+    return eventLog;
+  }
+
+  /**
+   * @return events collapsed into summaries so far
+   */
+  public long getAbsorbedCount() {
+    return absorbedEvents.sum();
+  }
+
+  private void closeExpired(long now) {
+    List<EventLog> summaries = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Window> iterator = windows.values().iterator();
+      while (iterator.hasNext()) {
+        Window window = iterator.next();
+        if (now - window.start >= windowMillis) {
+          iterator.remove();
+          addSummary(window, summaries);
+        }
+      }
+    }
+    send(summaries);
+  }
+
+  /**
+   * Stops the ticker task and emits the summaries of all open windows.
+   */
+  public void shutdown() {
+    tickTask.cancel(false);
+    List<EventLog> summaries = new ArrayList<>();
+    synchronized (this) {
+      windows.values().forEach(window -> addSummary(window, summaries));
+      windows.clear();
+    }
+    send(summaries);
+  }
+
+  private void send(List<EventLog> summaries) {
+    for (EventLog summary : summaries) {
+      try {
+        sink.accept(summary);
+      } catch (Exception e) {
+        System.err.println("Failed to send repeated event summary: " + e.getMessage());
+      }
+    }
+  }
+
+  private void addSummary(Window window, List<EventLog> summaries) {
+    if (window.count == 0) {
+      return;
+    }
+    EventLog first = window.first;
+    Map<String, Object> metadata = HashMap.newHashMap(
+        (first.getMetadata() != null ? first.getMetadata().size() : 0) + 3);
+    if (first.getMetadata() != null) {
+      metadata.putAll(first.getMetadata());
+    }
+    metadata.put(COUNT_KEY, window.count);
+    metadata.put(FIRST_SEEN_KEY, window.firstSeen);
+    metadata.put(LAST_SEEN_KEY, window.lastSeen);
+    summaries.add(EventLog.builder()
+        .id(idGenerator.getAsLong())
+        .traceId(first.getTraceId())
+        .level(first.getLevel())
+        .eventName(first.getEventName())
+        .message(first.getMessage())
+        .service(first.getService())
+        .exceptionTrace(first.getExceptionTrace())
+        .metadata(metadata)
+        .context(first.getContext())
+        .timestamp(window.lastSeen)
+        .build());
+  }
+
+  private record Fingerprint(String level, String eventName, Class<?> sourceClass, String template) {
+  }
+
+  /**
+   * An open window: the event that opened it and the repeats absorbed since.
+   */
+  private static final class Window {
+
+    final EventLog first;
+    final long start;
+    long count;
+    long firstSeen;
+    long lastSeen;
+
+    Window(EventLog first, long start) {
+      this.first = first;
+      this.start = start;
+    }
+
+    void absorb(long timestamp) {
+      if (count == 0) {
+        firstSeen = timestamp;
+      }
+      count++;
+      lastSeen = timestamp;
+    }
+  }
+
+}
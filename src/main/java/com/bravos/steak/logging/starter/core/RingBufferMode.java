@@ -0,0 +1,19 @@
+package com.bravos.steak.logging.starter.core;
+
+/**
+ * Storage used for queued log events.
+ */
+public enum RingBufferMode {
+
+  /**
+   * Pre-allocated {@link AsyncLogRingBuffer.LogEvent} slots holding object references, optionally sharded.
+   */
+  HEAP,
+
+  /**
+   * Fixed-size off-heap slots holding events already encoded as JSON, see {@link OffHeapLogRingBuffer}.
+   * Sized in bytes; always a single buffer.
+   */
+  OFF_HEAP
+
+}
@@ -0,0 +1,212 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-producer, single-consumer sequencing for a power-of-2 ring of slots,
+ * independent of how the slots are stored.
+ * <p>
+ * Producers claim slots with a CAS on a padded cursor, and then mark them in a per-slot
+ * availability array once written. The consumer only ever reads slots whose availability
+ * flag matches the current lap of the ring.
+ */
+final class RingSequencer {
+
+  private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+  private final int bufferSize;
+  private final int indexMask;
+  private final int indexShift;
+
+  /**
+   * Lap number ({@code sequence >>> indexShift}) of the last publish into each slot.
+   */
+  private final int[] availableBuffer;
+
+  private final Sequence producerSequence = new Sequence(-1);
+  private final Sequence consumerSequence = new Sequence(-1);
+  /**
+   * Producers' last view of the consumer sequence, so the full-check rarely reads the consumer's cache line.
+   */
+  private final Sequence cachedConsumerSequence = new Sequence(-1);
+
+  private final ConcurrentLinkedQueue<EvictionRequest> evictionRequests = new ConcurrentLinkedQueue<>();
+  private final LongAdder evictedEvents = new LongAdder();
+
+  private final WaitStrategy waitStrategy;
+
+  RingSequencer(int bufferSize, WaitStrategy waitStrategy) {
+    if (bufferSize <= 0 || (bufferSize & (bufferSize - 1)) != 0) {
+      throw new IllegalArgumentException("Buffer size must be a power of 2");
+    }
+    this.bufferSize = bufferSize;
+    this.indexMask = bufferSize - 1;
+    this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+    this.availableBuffer = new int[bufferSize];
+    Arrays.fill(availableBuffer, -1);
+    this.waitStrategy = waitStrategy;
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  int index(long sequence) {
+    return (int) (sequence & indexMask);
+  }
+
+  // ==================== PRODUCER ====================
+
+  /**
+   * Claims {@code n} contiguous slots with a single CAS.
+   *
+   * @return the highest claimed sequence, or -1 if fewer than {@code n} slots are free
+   */
+  long tryNext(int n) {
+    if (n < 1 || n > bufferSize) {
+      throw new IllegalArgumentException("n must be between 1 and the buffer size");
+    }
+    long currentProducer;
+    long nextSequence;
+
+    do {
+      currentProducer = producerSequence.get();
+      nextSequence = currentProducer + n;
+
+      // Check if buffer is full, refreshing the cached consumer position only when it looks full
+      long wrapPoint = nextSequence - bufferSize;
+      long cachedConsumer = cachedConsumerSequence.get();
+      if (wrapPoint > cachedConsumer) {
+        long consumer = consumerSequence.get();
+        cachedConsumerSequence.set(consumer);
+        if (wrapPoint > consumer) {
+          return -1;
+        }
+      }
+    } while (!producerSequence.compareAndSet(currentProducer, nextSequence));
+
+    return nextSequence;
+  }
+
+  void publish(long sequence) {
+    setAvailable(sequence);
+    waitStrategy.signalAllWhenBlocking();
+  }
+
+  void publish(long lo, long hi) {
+    for (long sequence = lo; sequence <= hi; sequence++) {
+      setAvailable(sequence);
+    }
+    waitStrategy.signalAllWhenBlocking();
+  }
+
+  private void setAvailable(long sequence) {
+    // Release store: the slot contents are visible before the flag
+    AVAILABLE.setRelease(availableBuffer, index(sequence), (int) (sequence >>> indexShift));
+  }
+
+  private boolean isAvailable(long sequence) {
+    return (int) AVAILABLE.getAcquire(availableBuffer, index(sequence)) == (int) (sequence >>> indexShift);
+  }
+
+  /**
+   * @return approximate number of free slots
+   */
+  long remainingCapacity() {
+    return bufferSize - (producerSequence.get() - consumerSequence.get());
+  }
+
+  // ==================== DROP OLDEST ====================
+
+  /**
+   * Queues a request for the consumer to discard the oldest event.
+   *
+   * @return the request, to be passed to {@link #cancelEviction} once the producer stops waiting
+   */
+  EvictionRequest requestEviction() {
+    EvictionRequest request = new EvictionRequest();
+    evictionRequests.offer(request);
+    return request;
+  }
+
+  /**
+   * Withdraws {@code request} unless the consumer already served it. Withdrawn requests are
+   * skipped when the consumer reaches them, so one producer can never cancel another's eviction.
+   *
+   * @return true if the consumer had already evicted an event for this request
+   */
+  boolean cancelEviction(EvictionRequest request) {
+    return !request.compareAndSet(false, true);
+  }
+
+  long getEvictedCount() {
+    return evictedEvents.sum();
+  }
+
+  /**
+   * Takes up to {@code available} pending eviction requests. Called by the consumer only.
+   *
+   * @return how many of the oldest available events the consumer must discard
+   */
+  long takeEvictions(long available) {
+    long evicted = 0;
+    EvictionRequest request;
+    while (evicted < available && (request = evictionRequests.poll()) != null) {
+      // Settle the request first: it counts only if its producer has not withdrawn it
+      if (request.compareAndSet(false, true)) {
+        evicted++;
+      }
+    }
+    if (evicted > 0) {
+      evictedEvents.add(evicted);
+    }
+    return evicted;
+  }
+
+  // ==================== CONSUMER ====================
+
+  /**
+   * @return the highest claimed producer sequence
+   */
+  long cursor() {
+    return producerSequence.get();
+  }
+
+  /**
+   * Finds the highest sequence, starting at {@code lowerBound}, up to which every slot is published.
+   * Stops at the first claimed-but-unwritten slot instead of spinning on it.
+   *
+   * @return the highest contiguous published sequence, or {@code lowerBound - 1} if none
+   */
+  long highestPublishedSequence(long lowerBound) {
+    long available = producerSequence.get();
+    for (long sequence = lowerBound; sequence <= available; sequence++) {
+      if (!isAvailable(sequence)) {
+        return sequence - 1;
+      }
+    }
+    return available;
+  }
+
+  /**
+   * Marks every slot up to and including {@code sequence} as consumed, making it reusable by producers.
+   */
+  void release(long sequence) {
+    consumerSequence.set(sequence);
+  }
+
+  /**
+   * One producer's pending {@link #requestEviction}; settled exactly once, either served by the
+   * consumer or withdrawn by the producer.
+   */
+  static final class EvictionRequest extends AtomicBoolean {
+  }
+
+}
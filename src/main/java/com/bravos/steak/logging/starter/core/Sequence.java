@@ -0,0 +1,62 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Cache-line padded sequence counter with acquire/release accessors.
+ * The padding keeps the producer and consumer sequences of a ring buffer on separate
+ * cache lines so their writers do not invalidate each other (false sharing).
+ */
+final class Sequence extends SequenceRhsPadding {
+
+  private static final VarHandle VALUE;
+
+  static {
+    try {
+      VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  Sequence(long initialValue) {
+    VALUE.setRelease(this, initialValue);
+  }
+
+  /**
+   * Acquire read: everything written before the matching {@link #set} is visible.
+   */
+  long get() {
+    return (long) VALUE.getAcquire(this);
+  }
+
+  /**
+   * Release write: cheaper than a volatile store, orders all previous writes before it.
+   */
+  void set(long value) {
+    VALUE.setRelease(this, value);
+  }
+
+  boolean compareAndSet(long expected, long newValue) {
+    return VALUE.compareAndSet(this, expected, newValue);
+  }
+
+}
+
+// Field layout follows the class hierarchy, so superclass padding lands before the value
+// and subclass padding after it, filling a 64-byte cache line on each side.
+
+@SuppressWarnings("unused")
+abstract class SequenceLhsPadding {
+  protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequenceLhsPadding {
+  protected volatile long value;
+}
+
+@SuppressWarnings("unused")
+abstract class SequenceRhsPadding extends SequenceValue {
+  protected long p9, p10, p11, p12, p13, p14, p15;
+}
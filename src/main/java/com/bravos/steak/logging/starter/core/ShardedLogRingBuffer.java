@@ -0,0 +1,149 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.WaitStrategy;
+
+import java.util.Map;
+
+/**
+ * Striped set of {@link AsyncLogRingBuffer}s drained by one {@link LogEventProcessor}.
+ * Each producer thread is mapped to a shard by its thread id, so concurrent producers
+ * run their claim CAS on different sequences instead of contending on a single one.
+ * With one shard this behaves exactly like a plain ring buffer.
+ * <p>
+ * Shards can be grouped into priority lanes, each with its own capacity and drain weight,
+ * so a flood in one lane can neither take the slots of another nor starve it on the consumer.
+ */
+public final class ShardedLogRingBuffer {
+
+  /**
+   * Events a lane of weight 1 may deliver per shard and consumer batch.
+   */
+  private static final int LANE_BATCH_QUANTUM = 256;
+
+  private final AsyncLogRingBuffer[] shards;
+  private final int shardCount;
+  private final int shardShift;
+  private final LogEventProcessor processor;
+
+  /**
+   * @param shardCount     number of shards, must be a power of 2
+   * @param shardSize      capacity of each shard, must be a power of 2
+   * @param handler        receives every event on the consumer thread
+   * @param waitStrategy   how the consumer waits when all shards are empty
+   * @param threadMode     kind of consumer thread
+   * @param timestampMerge deliver each batch in approximate timestamp order across shards
+   */
+  public ShardedLogRingBuffer(int shardCount,
+                              int shardSize,
+                              AsyncLogRingBuffer.LogEventHandler handler,
+                              WaitStrategy waitStrategy,
+                              ConsumerThreadMode threadMode,
+                              boolean timestampMerge) {
+    this(shardCount, new int[]{shardSize}, null, handler, waitStrategy, threadMode, timestampMerge);
+  }
+
+  /**
+   * Creates a buffer with priority lanes. Lane 0 is drained first within a batch.
+   *
+   * @param shardCount  number of shards per lane, must be a power of 2
+   * @param laneSizes   capacity of each shard of each lane, must be powers of 2
+   * @param laneWeights relative drain weight of each lane, or null to drain every lane without limit
+   */
+  public ShardedLogRingBuffer(int shardCount,
+                              int[] laneSizes,
+                              int[] laneWeights,
+                              AsyncLogRingBuffer.LogEventHandler handler,
+                              WaitStrategy waitStrategy,
+                              ConsumerThreadMode threadMode,
+                              boolean timestampMerge) {
+    if (shardCount <= 0 || (shardCount & (shardCount - 1)) != 0) {
+      throw new IllegalArgumentException("Shard count must be a positive power of 2");
+    }
+    if (laneWeights != null && laneWeights.length != laneSizes.length) {
+      throw new IllegalArgumentException("One weight per lane is required");
+    }
+    this.shardCount = shardCount;
+    this.shards = new AsyncLogRingBuffer[laneSizes.length * shardCount];
+    int[] batchLimits = laneWeights != null ? new int[shards.length] : null;
+    for (int i = 0; i < shards.length; i++) {
+      int lane = i / shardCount;
+      shards[i] = new AsyncLogRingBuffer(laneSizes[lane], waitStrategy);
+      if (batchLimits != null) {
+        if (laneWeights[lane] < 1) {
+          throw new IllegalArgumentException("Lane weights must be positive");
+        }
+        batchLimits[i] = laneWeights[lane] * LANE_BATCH_QUANTUM;
+      }
+    }
+    this.shardShift = 64 - Integer.numberOfTrailingZeros(shardCount);
+    this.processor = new LogEventProcessor(shards, batchLimits, handler, waitStrategy, threadMode, timestampMerge);
+    this.processor.start();
+  }
+
+  /**
+   * @return the shard of lane 0 the current thread publishes to
+   */
+  public AsyncLogRingBuffer shard() {
+    return shard(0);
+  }
+
+  /**
+   * @return the shard of the given lane the current thread publishes to
+   */
+  public AsyncLogRingBuffer shard(int lane) {
+    int base = lane * shardCount;
+    if (shardCount == 1) {
+      return shards[base];
+    }
+    // Fibonacci hashing spreads sequential (virtual) thread ids evenly over the shards
+    long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+    return shards[base + (int) (hash >>> shardShift)];
+  }
+
+  /**
+   * Publishes a log event to the current thread's shard.
+   *
+   * @return true if published successfully, false if the shard is full
+   */
+  public boolean publish(
+      long id,
+      String traceId,
+      String level,
+      String eventName,
+      String message,
+      String service,
+      Throwable throwable,
+      Map<String, Object> metadata,
+      long timestamp,
+      Class<?> sourceClass
+  ) {
+    return shard().publish(id, traceId, level, eventName, message, service, throwable, metadata, timestamp, sourceClass);
+  }
+
+  /**
+   * @return events discarded by the consumer across all shards to make room for newer ones
+   */
+  public long getEvictedCount() {
+    long total = 0;
+    for (AsyncLogRingBuffer shard : shards) {
+      total += shard.getEvictedCount();
+    }
+    return total;
+  }
+
+  /**
+   * @return shards per lane
+   */
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public int getLaneCount() {
+    return shards.length / shardCount;
+  }
+
+  public void shutdown() {
+    processor.shutdown();
+  }
+
+}
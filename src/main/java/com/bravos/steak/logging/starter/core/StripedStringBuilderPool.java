@@ -0,0 +1,75 @@
+package com.bravos.steak.logging.starter.core;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of reusable {@link StringBuilder}s for {@link FormatBufferStrategy#STRIPED}.
+ * <p>
+ * A thread starts probing at the stripe of its thread id and takes the first builder it finds by
+ * swapping the slot to null; releasing puts the builder back into the first empty slot of the same
+ * probe sequence. Builders are interchangeable, so no ownership is tracked. Slots are spread
+ * 64 bytes apart so neighbouring stripes do not share a cache line.
+ */
+final class StripedStringBuilderPool {
+
+  private static final int SLOT_STRIDE = 16;
+  private static final int MAX_PROBES = 4;
+  private static final int INITIAL_CAPACITY = 256;
+  /**
+   * Builders grown beyond this by a huge message are dropped instead of being pooled.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 8192;
+
+  private final AtomicReferenceArray<StringBuilder> slots;
+  private final int stripeMask;
+  private final int stripeShift;
+
+  StripedStringBuilderPool() {
+    this(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1);
+  }
+
+  StripedStringBuilderPool(int stripes) {
+    if (stripes <= 0 || (stripes & (stripes - 1)) != 0) {
+      throw new IllegalArgumentException("Stripe count must be a positive power of 2");
+    }
+    this.slots = new AtomicReferenceArray<>(stripes * SLOT_STRIDE);
+    for (int i = 0; i < stripes; i++) {
+      slots.set(i * SLOT_STRIDE, new StringBuilder(INITIAL_CAPACITY));
+    }
+    this.stripeMask = stripes - 1;
+    this.stripeShift = 64 - Integer.numberOfTrailingZeros(Math.max(stripes, 2));
+  }
+
+  /**
+   * @return an empty builder, pooled if one was free near this thread's stripe
+   */
+  StringBuilder acquire() {
+    int stripe = stripe();
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      StringBuilder sb = slots.getAndSet(((stripe + probe) & stripeMask) * SLOT_STRIDE, null);
+      if (sb != null) {
+        sb.setLength(0);
+        return sb;
+      }
+    }
+    return new StringBuilder(INITIAL_CAPACITY);
+  }
+
+  void release(StringBuilder sb) {
+    if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+      return;
+    }
+    int stripe = stripe();
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      if (slots.compareAndSet(((stripe + probe) & stripeMask) * SLOT_STRIDE, null, sb)) {
+        return;
+      }
+    }
+  }
+
+  private int stripe() {
+    // Fibonacci hashing spreads sequential (virtual) thread ids evenly over the stripes
+    return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> stripeShift) & stripeMask;
+  }
+
+}
@@ -0,0 +1,274 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.clock.LogClock;
+import com.bravos.steak.logging.starter.model.EventLog;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tail-based sampling: low-level events are held per trace ID on the consumer thread and only sent if
+ * the same trace later logs an ERROR. Once a trace has failed, its further low-level events are sent
+ * straight away. Held events are discarded when the trace completes ({@link #completeTrace}, after a
+ * grace period for events still in flight) or stays idle for the idle timeout.
+ * <p>
+ * Memory is capped four ways: events per trace (the oldest are dropped), and traces, total events and
+ * approximate bytes across all traces (the least recently active trace is discarded first). The byte
+ * count includes each trace's map entry, buffer and deque. Failed traces are remembered by ID only, in a
+ * separate set capped at the same number of traces. Events logged outside a request, job or
+ * {@code LogContext} get a trace ID of their own that no ERROR can ever release, so they are never held:
+ * they are sent if their level is enabled and dropped otherwise.
+ */
+public final class TailSamplingBuffer {
+
+  /**
+   * Rough per-event overhead of an {@link EventLog} and its boxed fields, in bytes.
+   */
+  private static final int EVENT_OVERHEAD_BYTES = 160;
+  private static final int METADATA_ENTRY_BYTES = 64;
+  /**
+   * Rough overhead of a held trace: map entry, key String, {@link TraceBuffer} and an empty {@link ArrayDeque}.
+   */
+  private static final int TRACE_OVERHEAD_BYTES = 240;
+  /**
+   * Deque slot per held event, on top of the event itself.
+   */
+  private static final int EVENT_REFERENCE_BYTES = 8;
+
+  private final boolean holdInfo;
+  private final int maxEventsPerTrace;
+  private final int maxTraces;
+  private final long maxEvents;
+  private final long maxBytes;
+  private final long idleTimeoutMillis;
+  private final long completionGraceMillis;
+  private final LogClock clock;
+  private final LinkedHashMap<String, TraceBuffer> traces = new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * Last activity of traces that logged an ERROR, least recently active first.
+   */
+  private final LinkedHashMap<String, Long> failedTraces;
+  private final LongAdder releasedEvents = new LongAdder();
+  private final LongAdder discardedEvents = new LongAdder();
+  private final ScheduledFuture<?> tickTask;
+  private long bufferedEvents;
+  private long bufferedBytes;
+
+  /**
+   * @param level             most severe level that is held, {@link LogLevel#DEBUG} or {@link LogLevel#INFO}
+   * @param maxEventsPerTrace events held per trace; the oldest are dropped beyond it
+   * @param maxTraces         traces held, and failed traces remembered, at a time
+   * @param maxEvents         events held across all traces
+   * @param maxBytes          approximate bytes held across all traces
+   * @param idleTimeout       a trace without events for this long is discarded
+   * @param completionGrace   delay between {@link #completeTrace} and discarding, for events still in the ring buffer
+   */
+  public TailSamplingBuffer(LogLevel level, int maxEventsPerTrace, int maxTraces, long maxEvents, long maxBytes,
+                            Duration idleTimeout, Duration completionGrace, LogClock clock, LogTicker ticker) {
+    if (level != LogLevel.DEBUG && level != LogLevel.INFO) {
+      throw new IllegalArgumentException("Tail sampling holds DEBUG or DEBUG and INFO events, not " + level);
+    }
+    if (maxEventsPerTrace <= 0) {
+      throw new IllegalArgumentException("maxEventsPerTrace must be positive");
+    }
+    if (maxTraces <= 0) {
+      throw new IllegalArgumentException("maxTraces must be positive");
+    }
+    this.holdInfo = level == LogLevel.INFO;
+    this.maxEventsPerTrace = maxEventsPerTrace;
+    this.maxTraces = maxTraces;
+    this.maxEvents = maxEvents;
+    this.maxBytes = maxBytes;
+    this.idleTimeoutMillis = idleTimeout.toMillis();
+    this.completionGraceMillis = completionGrace.toMillis();
+    this.clock = clock;
+    this.failedTraces = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > TailSamplingBuffer.this.maxTraces;
+      }
+    };
+    long tickMillis = Math.max(10, Math.min(idleTimeoutMillis, completionGraceMillis) / 4);
+    this.tickTask = ticker.schedule("tail-sampling-expiry", Duration.ofMillis(tickMillis),
+        () -> expire(clock.currentTimeMillis()));
+  }
+
+  /**
+   * @return bit {@code 1 << level.ordinal()} set for every held level, so loggers capture them
+   * even if the level is disabled
+   */
+  int heldLevels() {
+    int mask = 1 << LogLevel.DEBUG.ordinal();
+    if (holdInfo) mask |= 1 << LogLevel.INFO.ordinal();
+    return mask;
+  }
+
+  /**
+   * @param level the {@link LogLevel} name of an event
+   */
+  boolean isHeld(String level) {
+    return LogLevel.DEBUG.name().equals(level) || holdInfo && LogLevel.INFO.name().equals(level);
+  }
+
+  /**
+   * Holds a low-level event until its trace fails or completes.
+   *
+   * @return false if the event must be sent now because its trace already failed
+   */
+  synchronized boolean hold(EventLog eventLog) {
+    String traceId = eventLog.getTraceId();
+    if (traceId == null) {
+      return false;
+    }
+    long now = clock.currentTimeMillis();
+    if (failedTraces.replace(traceId, now) != null) {
+      return false;
+    }
+    TraceBuffer trace = traces.get(traceId);
+    if (trace == null) {
+      trace = new TraceBuffer();
+      trace.bytes = TRACE_OVERHEAD_BYTES + 2L * traceId.length();
+      bufferedBytes += trace.bytes;
+      traces.put(traceId, trace);
+    }
+    trace.lastSeen = now;
+    if (trace.events.size() >= maxEventsPerTrace) {
+      remove(trace, trace.events.pollFirst());
+    }
+    long size = estimateSize(eventLog);
+    trace.events.addLast(eventLog);
+    trace.bytes += size;
+    bufferedEvents++;
+    bufferedBytes += size;
+    enforceCaps(trace);
+    return true;
+  }
+
+  /**
+   * Called when a trace logs an ERROR: moves its held events, oldest first, to {@code out}
+   * and sends its further low-level events straight away.
+   */
+  synchronized void releaseTo(String traceId, List<EventLog> out) {
+    if (traceId == null) {
+      return;
+    }
+    TraceBuffer trace = traces.remove(traceId);
+    if (trace != null) {
+      releasedEvents.add(trace.events.size());
+      out.addAll(trace.events);
+      bufferedEvents -= trace.events.size();
+      bufferedBytes -= trace.bytes;
+    }
+    failedTraces.put(traceId, clock.currentTimeMillis());
+  }
+
+  /**
+   * Marks a trace as finished; if it did not fail, its held events are discarded after the grace period.
+   */
+  public synchronized void completeTrace(String traceId) {
+    if (traceId == null) {
+      return;
+    }
+    TraceBuffer trace = traces.get(traceId);
+    if (trace != null) {
+      trace.completedAt = clock.currentTimeMillis();
+    }
+  }
+
+  public long getReleasedCount() {
+    return releasedEvents.sum();
+  }
+
+  /**
+   * @return held events dropped by completion, expiry or the memory caps
+   */
+  public long getDiscardedCount() {
+    return discardedEvents.sum();
+  }
+
+  private void enforceCaps(TraceBuffer current) {
+    Iterator<TraceBuffer> iterator = traces.values().iterator();
+    while ((traces.size() > maxTraces || bufferedEvents > maxEvents || bufferedBytes > maxBytes)
+        && iterator.hasNext()) {
+      TraceBuffer eldest = iterator.next();
+      if (eldest == current) {
+        continue;
+      }
+      iterator.remove();
+      discard(eldest);
+    }
+    // Only the current trace is left over the caps: trim its oldest events
+    while ((bufferedEvents > maxEvents || bufferedBytes > maxBytes) && !current.events.isEmpty()) {
+      remove(current, current.events.pollFirst());
+    }
+  }
+
+  private synchronized void expire(long now) {
+    Iterator<TraceBuffer> iterator = traces.values().iterator();
+    while (iterator.hasNext()) {
+      TraceBuffer trace = iterator.next();
+      boolean completed = trace.completedAt > 0 && now - trace.completedAt >= completionGraceMillis;
+      if (completed || now - trace.lastSeen >= idleTimeoutMillis) {
+        iterator.remove();
+        discard(trace);
+      }
+    }
+    failedTraces.values().removeIf(lastSeen -> now - lastSeen >= idleTimeoutMillis);
+  }
+
+  private void discard(TraceBuffer trace) {
+    discardedEvents.add(trace.events.size());
+    bufferedEvents -= trace.events.size();
+    bufferedBytes -= trace.bytes;
+  }
+
+  private void remove(TraceBuffer trace, EventLog eventLog) {
+    long size = estimateSize(eventLog);
+    trace.bytes -= size;
+    bufferedEvents--;
+    bufferedBytes -= size;
+    discardedEvents.increment();
+  }
+
+  private static long estimateSize(EventLog eventLog) {
+    long chars = length(eventLog.getTraceId()) + length(eventLog.getEventName()) + length(eventLog.getMessage())
+        + length(eventLog.getExceptionTrace());
+    int entries = (eventLog.getMetadata() != null ? eventLog.getMetadata().size() : 0)
+        + (eventLog.getContext() != null ? eventLog.getContext().size() : 0);
+    return EVENT_OVERHEAD_BYTES + EVENT_REFERENCE_BYTES + chars * 2 + (long) entries * METADATA_ENTRY_BYTES;
+  }
+
+  private static int length(String s) {
+    return s != null ? s.length() : 0;
+  }
+
+  /**
+   * Stops the expiry task; held events are dropped.
+   */
+  public void shutdown() {
+    tickTask.cancel(false);
+    synchronized (this) {
+      traces.values().forEach(this::discard);
+      traces.clear();
+      failedTraces.clear();
+    }
+  }
+
+  private static final class TraceBuffer {
+
+    final ArrayDeque<EventLog> events = new ArrayDeque<>();
+    /**
+     * Held events plus {@link #TRACE_OVERHEAD_BYTES} and the trace ID.
+     */
+    long bytes;
+    long lastSeen;
+    long completedAt;
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.bravos.steak.logging.starter.core.clock;
+
+import com.bravos.steak.logging.starter.core.LogTicker;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Clock read from a volatile field that the factory's {@link LogTicker} refreshes every {@code resolution},
+ * so logging threads never make the time call themselves.
+ * <p>
+ * Timestamps lag the system clock by up to one resolution plus the ticker's scheduling delay,
+ * and events of the same tick share a timestamp. Until a factory starts the clock, and after it
+ * stops, reads go to the system clock.
+ */
+public final class CoarseLogClock implements LogClock, AutoCloseable {
+
+  private final Duration resolution;
+  private ScheduledFuture<?> task;
+  /**
+   * Last tick, or 0 while no ticker refreshes it.
+   */
+  private volatile long now;
+
+  public CoarseLogClock() {
+    this(Duration.ofMillis(1));
+  }
+
+  public CoarseLogClock(Duration resolution) {
+    this.resolution = resolution;
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    long tick = now;
+    return tick != 0 ? tick : System.currentTimeMillis();
+  }
+
+  /**
+   * Starts refreshing on {@code ticker}; a clock shared by several factories ticks on the first one's.
+   */
+  @Override
+  public synchronized void start(LogTicker ticker) {
+    if (task != null) {
+      return;
+    }
+    now = System.currentTimeMillis();
+    task = ticker.schedule("log-clock", resolution, () -> now = System.currentTimeMillis());
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (task != null) {
+      task.cancel(false);
+      task = null;
+    }
+    now = 0;
+  }
+
+  @Override
+  public void close() {
+    stop();
+  }
+
+}
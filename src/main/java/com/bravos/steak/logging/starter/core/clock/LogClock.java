@@ -0,0 +1,45 @@
+package com.bravos.steak.logging.starter.core.clock;
+
+import com.bravos.steak.logging.starter.core.LogTicker;
+
+/**
+ * Source of event timestamps.
+ */
+public interface LogClock {
+
+  /**
+   * @return milliseconds since the epoch
+   */
+  long currentTimeMillis();
+
+  /**
+   * Only called if {@link #isPrecise()} is true.
+   *
+   * @return nanoseconds since the epoch
+   */
+  default long currentTimeNanos() {
+    return currentTimeMillis() * 1_000_000L;
+  }
+
+  /**
+   * @return true if events should carry the nanoseconds within their millisecond,
+   * to keep events of the same millisecond in order
+   */
+  default boolean isPrecise() {
+    return false;
+  }
+
+  /**
+   * Called by the {@link com.bravos.steak.logging.starter.core.LoggerFactory} using this clock; clocks
+   * refreshed in the background schedule that on its ticker.
+   */
+  default void start(LogTicker ticker) {
+  }
+
+  /**
+   * Called when that factory shuts down and its ticker stops.
+   */
+  default void stop() {
+  }
+
+}
@@ -0,0 +1,27 @@
+package com.bravos.steak.logging.starter.core.clock;
+
+import java.time.Instant;
+
+/**
+ * Reads the system clock at its full resolution (usually microseconds), so events also carry the
+ * nanoseconds within their millisecond. Events read in the same clock tick still share a value.
+ */
+public final class PreciseLogClock implements LogClock {
+
+  @Override
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public long currentTimeNanos() {
+    Instant now = Instant.now();
+    return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+  }
+
+  @Override
+  public boolean isPrecise() {
+    return true;
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.bravos.steak.logging.starter.core.clock;
+
+import com.bravos.steak.commonutils.shared.helper.DateTimeHelper;
+
+/**
+ * Reads the system clock on every call.
+ */
+public final class SystemLogClock implements LogClock {
+
+  @Override
+  public long currentTimeMillis() {
+    return DateTimeHelper.currentTimeMillis();
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.bravos.steak.logging.starter.core.sampling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies {@link SamplingPolicy}s by event name. The table is built once and never changes,
+ * so lookups take no lock; names without a policy, and events without a name, are always emitted.
+ * <p>
+ * Suppressed events are counted per name, and the count is handed to the next emitted event
+ * of that name through {@link #drainSuppressed}.
+ */
+public final class EventSampler {
+
+  private final Map<String, Throttle> throttles;
+
+  public EventSampler(Map<String, SamplingPolicy> policies) {
+    Map<String, Throttle> table = HashMap.newHashMap(policies.size());
+    policies.forEach((eventName, policy) -> table.put(eventName, new Throttle(policy)));
+    this.throttles = Map.copyOf(table);
+  }
+
+  /**
+   * @return true if the event should be emitted
+   */
+  public boolean tryAcquire(String eventName) {
+    // Map.copyOf tables throw on a null key
+    Throttle throttle = eventName != null ? throttles.get(eventName) : null;
+    if (throttle == null || throttle.policy.tryAcquire()) {
+      return true;
+    }
+    throttle.suppressed.increment();
+    return false;
+  }
+
+  /**
+   * @return events of this name suppressed since the last call, resetting the count
+   */
+  public long drainSuppressed(String eventName) {
+    Throttle throttle = eventName != null ? throttles.get(eventName) : null;
+    return throttle == null ? 0 : throttle.suppressed.sumThenReset();
+  }
+
+  private static final class Throttle {
+
+    final SamplingPolicy policy;
+    final LongAdder suppressed = new LongAdder();
+
+    Throttle(SamplingPolicy policy) {
+      this.policy = policy;
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.bravos.steak.logging.starter.core.sampling;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits the first {@code count} events of every fixed interval. Once the quota is used up,
+ * suppressed events only read the counter until the next interval starts.
+ */
+final class FirstNSamplingPolicy implements SamplingPolicy {
+
+  private final long count;
+  private final long intervalNanos;
+  private final AtomicLong intervalStart;
+  private final AtomicLong emitted = new AtomicLong();
+
+  FirstNSamplingPolicy(int count, Duration interval) {
+    if (count < 1 || interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("First-N sampling needs a positive count and interval");
+    }
+    this.count = count;
+    this.intervalNanos = interval.toNanos();
+    this.intervalStart = new AtomicLong(System.nanoTime());
+  }
+
+  @Override
+  public boolean tryAcquire() {
+    long now = System.nanoTime();
+    long start = intervalStart.get();
+    if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+      // This thread opened the new interval; events racing with the reset may count against either one
+      emitted.set(0);
+    }
+    if (emitted.get() >= count) {
+      return false;
+    }
+    return emitted.incrementAndGet() <= count;
+  }
+
+}
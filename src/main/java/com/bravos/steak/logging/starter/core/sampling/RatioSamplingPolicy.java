@@ -0,0 +1,45 @@
+package com.bravos.steak.logging.starter.core.sampling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Emits every n-th event, counted per stripe so concurrent threads do not contend on one counter.
+ * Each stripe emits its first event; across stripes the share converges to {@code 1/n}.
+ */
+final class RatioSamplingPolicy implements SamplingPolicy {
+
+  /**
+   * Counters are spread 64 bytes apart so neighbouring stripes do not share a cache line.
+   */
+  private static final int SLOT_STRIDE = 8;
+
+  private final long period;
+  private final AtomicLongArray counters;
+  private final int stripeMask;
+  private final int stripeShift;
+
+  RatioSamplingPolicy(double ratio) {
+    if (!(ratio > 0 && ratio <= 1)) {
+      throw new IllegalArgumentException("Sampling ratio must be in (0, 1]: " + ratio);
+    }
+    this.period = Math.round(1 / ratio);
+    int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.counters = new AtomicLongArray(stripes * SLOT_STRIDE);
+    this.stripeMask = stripes - 1;
+    this.stripeShift = 64 - Integer.numberOfTrailingZeros(Math.max(stripes, 2));
+  }
+
+  @Override
+  public boolean tryAcquire() {
+    if (period == 1) {
+      return true;
+    }
+    return counters.getAndIncrement(stripe() * SLOT_STRIDE) % period == 0;
+  }
+
+  private int stripe() {
+    // Fibonacci hashing spreads sequential (virtual) thread ids evenly over the stripes
+    return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> stripeShift) & stripeMask;
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.bravos.steak.logging.starter.core.sampling;
+
+import java.time.Duration;
+
+/**
+ * Decides whether one event of a given name is emitted. Policies keep their own lock-free state,
+ * so an instance must only be used for a single event name.
+ */
+public interface SamplingPolicy {
+
+  /**
+   * Called for every enabled event of the name before anything is formatted.
+   * Must be cheap, especially when it returns false.
+   *
+   * @return true to emit the event, false to suppress it
+   */
+  boolean tryAcquire();
+
+  /**
+   * Emits a fixed share of the events, e.g. {@code 0.01} for one in a hundred.
+   */
+  static SamplingPolicy ratio(double ratio) {
+    return new RatioSamplingPolicy(ratio);
+  }
+
+  /**
+   * Token bucket: emits up to {@code permits} events per {@code period}, refilled continuously,
+   * with bursts of up to {@code permits} events.
+   */
+  static SamplingPolicy rateLimit(int permits, Duration period) {
+    return new TokenBucketSamplingPolicy(permits, period);
+  }
+
+  /**
+   * Emits the first {@code count} events of every {@code interval}.
+   */
+  static SamplingPolicy firstN(int count, Duration interval) {
+    return new FirstNSamplingPolicy(count, interval);
+  }
+
+}
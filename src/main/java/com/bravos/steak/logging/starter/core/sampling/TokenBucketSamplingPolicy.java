@@ -0,0 +1,40 @@
+package com.bravos.steak.logging.starter.core.sampling;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket in its GCRA form: a single "theoretical arrival time" advanced by CAS, so no refill
+ * thread or lock is needed. A suppressed event only reads the field, it never writes it.
+ */
+final class TokenBucketSamplingPolicy implements SamplingPolicy {
+
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrival;
+
+  TokenBucketSamplingPolicy(int permits, Duration period) {
+    if (permits < 1 || period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("Rate limit needs at least one permit per positive period");
+    }
+    this.emissionIntervalNanos = Math.max(1, period.toNanos() / permits);
+    this.burstToleranceNanos = emissionIntervalNanos * (permits - 1);
+    this.theoreticalArrival = new AtomicLong(System.nanoTime());
+  }
+
+  @Override
+  public boolean tryAcquire() {
+    long now = System.nanoTime();
+    while (true) {
+      long arrival = theoreticalArrival.get();
+      if (arrival - now > burstToleranceNanos) {
+        return false;
+      }
+      long next = Math.max(arrival, now) + emissionIntervalNanos;
+      if (theoreticalArrival.compareAndSet(arrival, next)) {
+        return true;
+      }
+    }
+  }
+
+}
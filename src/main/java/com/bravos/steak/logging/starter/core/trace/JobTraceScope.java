@@ -0,0 +1,59 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+/**
+ * Gives every event logged by a background job, outside a request context, one shared trace ID.
+ * The ID is created lazily by the first event and is visible to subtasks forked inside the scope.
+ * <pre>{@code
+ * JobTraceScope.run(() -> reconcilePayments());
+ * }</pre>
+ */
+public final class JobTraceScope {
+
+  private static final ScopedValue<JobTraceScope> CURRENT = ScopedValue.newInstance();
+
+  private volatile String traceId;
+
+  private JobTraceScope() {
+  }
+
+  public static void run(Runnable job) {
+    ScopedValue.where(CURRENT, new JobTraceScope()).run(job);
+  }
+
+  public static <T, X extends Throwable> T call(ScopedValue.CallableOp<? extends T, X> job) throws X {
+    return ScopedValue.where(CURRENT, new JobTraceScope()).call(job);
+  }
+
+  /**
+   * @return true inside {@link #run} or {@link #call}, where {@link #currentTraceId} is shared by the job
+   */
+  public static boolean isActive() {
+    return CURRENT.isBound();
+  }
+
+  /**
+   * @return the trace ID of the enclosing job scope, creating it on first use,
+   * or a fresh ID from {@code generator} outside a job scope
+   */
+  public static String currentTraceId(TraceIdGenerator generator) {
+    if (!CURRENT.isBound()) {
+      return generator.nextTraceId();
+    }
+    return CURRENT.get().traceId(generator);
+  }
+
+  private String traceId(TraceIdGenerator generator) {
+    String id = traceId;
+    if (id == null) {
+      synchronized (this) {
+        id = traceId;
+        if (id == null) {
+          id = generator.nextTraceId();
+          traceId = id;
+        }
+      }
+    }
+    return id;
+  }
+
+}
@@ -0,0 +1,141 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logging context carried in a {@link ScopedValue}: an optional trace ID and MDC-style fields that
+ * are attached to every event logged inside the scope.
+ * <p>
+ * Unlike a ThreadLocal the binding costs no per-thread map entry, is read without a hash lookup and
+ * is inherited by subtasks forked in a {@code StructuredTaskScope}. A nested binding starts from the
+ * enclosing fields, so the fields are copied once per binding, never per event.
+ * <pre>{@code
+ * LogContext.with("orderId", orderId)
+ *     .field("tenant", tenant)
+ *     .run(() -> checkout(order));
+ * }</pre>
+ */
+public final class LogContext {
+
+  private static final ScopedValue<LogContext> CURRENT = ScopedValue.newInstance();
+
+  private final String traceId;
+  private final Map<String, Object> fields;
+
+  private LogContext(String traceId, Map<String, Object> fields) {
+    this.traceId = traceId;
+    this.fields = fields;
+  }
+
+  /**
+   * @return the context bound to the current thread, or null outside any binding
+   */
+  public static LogContext current() {
+    return CURRENT.isBound() ? CURRENT.get() : null;
+  }
+
+  /**
+   * @return the fields of the current context, or null if there are none
+   */
+  public static Map<String, Object> currentFields() {
+    if (!CURRENT.isBound()) {
+      return null;
+    }
+    Map<String, Object> fields = CURRENT.get().fields;
+    return fields.isEmpty() ? null : fields;
+  }
+
+  /**
+   * Starts a binding that inherits the current trace ID and fields.
+   */
+  public static Builder builder() {
+    return new Builder(current());
+  }
+
+  public static Builder with(String key, Object value) {
+    return builder().field(key, value);
+  }
+
+  public static Builder withTraceId(String traceId) {
+    return builder().traceId(traceId);
+  }
+
+  /**
+   * Captures the current context so {@code task} sees it on whatever thread runs it,
+   * e.g. when handing work to an executor.
+   *
+   * @return {@code task} itself if no context is bound
+   */
+  public static Runnable wrap(Runnable task) {
+    LogContext context = current();
+    if (context == null) {
+      return task;
+    }
+    return () -> ScopedValue.where(CURRENT, context).run(task);
+  }
+
+  /**
+   * @return the trace ID of this context, or null to fall back to the request or job trace ID
+   */
+  public String getTraceId() {
+    return traceId;
+  }
+
+  /**
+   * @return the fields of this context, immutable
+   */
+  public Map<String, Object> getFields() {
+    return fields;
+  }
+
+  public static final class Builder {
+
+    private String traceId;
+    private final Map<String, Object> fields;
+
+    private Builder(LogContext parent) {
+      if (parent != null) {
+        this.traceId = parent.traceId;
+        this.fields = new HashMap<>(parent.fields);
+      } else {
+        this.fields = new HashMap<>();
+      }
+    }
+
+    public Builder traceId(String traceId) {
+      this.traceId = traceId;
+      return this;
+    }
+
+    /**
+     * Adds a field, replacing an inherited one with the same key. A null value removes the key.
+     */
+    public Builder field(String key, Object value) {
+      if (value == null) {
+        fields.remove(key);
+      } else {
+        fields.put(key, value);
+      }
+      return this;
+    }
+
+    public Builder fields(Map<String, ?> fields) {
+      fields.forEach(this::field);
+      return this;
+    }
+
+    public void run(Runnable task) {
+      ScopedValue.where(CURRENT, build()).run(task);
+    }
+
+    public <T, X extends Throwable> T call(ScopedValue.CallableOp<? extends T, X> task) throws X {
+      return ScopedValue.where(CURRENT, build()).call(task);
+    }
+
+    private LogContext build() {
+      return new LogContext(traceId, Map.copyOf(fields));
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 128-bit random trace IDs rendered as 32 lowercase hex characters, the W3C trace-id format.
+ * Uses {@link ThreadLocalRandom}, so unlike {@link java.util.UUID#randomUUID()} it never touches
+ * the shared SecureRandom. Not suitable where IDs must be unpredictable.
+ */
+public final class RandomTraceIdGenerator implements TraceIdGenerator {
+
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  @Override
+  public String nextTraceId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    byte[] chars = new byte[32];
+    writeHex(chars, 0, random.nextLong());
+    writeHex(chars, 16, random.nextLong());
+    return new String(chars, StandardCharsets.ISO_8859_1);
+  }
+
+  private static void writeHex(byte[] chars, int offset, long value) {
+    for (int i = 15; i >= 0; i--) {
+      chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+import com.bravos.steak.commonutils.shared.helper.Snowflake;
+
+/**
+ * Trace IDs derived from a {@link Snowflake}, rendered as 16 hex characters.
+ * Unique across the cluster and roughly time-ordered.
+ */
+public final class SnowflakeTraceIdGenerator implements TraceIdGenerator {
+
+  private final Snowflake snowflake;
+
+  public SnowflakeTraceIdGenerator(Snowflake snowflake) {
+    this.snowflake = snowflake;
+  }
+
+  @Override
+  public String nextTraceId() {
+    String hex = Long.toHexString(snowflake.next());
+    return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+  }
+
+}
@@ -0,0 +1,11 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+/**
+ * Source of trace IDs for events logged outside a request context.
+ */
+@FunctionalInterface
+public interface TraceIdGenerator {
+
+  String nextTraceId();
+
+}
@@ -0,0 +1,15 @@
+package com.bravos.steak.logging.starter.core.trace;
+
+import java.util.UUID;
+
+/**
+ * Random UUID trace IDs. Cryptographically strong, but every call goes through the shared SecureRandom.
+ */
+public final class UuidTraceIdGenerator implements TraceIdGenerator {
+
+  @Override
+  public String nextTraceId() {
+    return UUID.randomUUID().toString();
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.bravos.steak.logging.starter.core.wait;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Blocks the consumer on a condition until a producer signals.
+ * Near-zero idle CPU; producers only take the lock when the consumer is actually waiting.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition eventAvailable = lock.newCondition();
+  private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+  @Override
+  public long waitFor(long sequence, LongSupplier cursor, BooleanSupplier running) {
+    long available = cursor.getAsLong();
+    if (available >= sequence) {
+      return available;
+    }
+    lock.lock();
+    try {
+      while (true) {
+        // Raise the flag before re-checking so a concurrent publish cannot be missed
+        signalNeeded.set(true);
+        available = cursor.getAsLong();
+        if (available >= sequence || !running.getAsBoolean()) {
+          return available;
+        }
+        eventAvailable.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return cursor.getAsLong();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalAllWhenBlocking() {
+    if (signalNeeded.getAndSet(false)) {
+      lock.lock();
+      try {
+        eventAvailable.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+}
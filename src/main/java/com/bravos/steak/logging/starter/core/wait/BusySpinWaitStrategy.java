@@ -0,0 +1,21 @@
+package com.bravos.steak.logging.starter.core.wait;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Spins on the cursor without ever giving up the CPU.
+ * Lowest handoff latency, but burns a full core; use with a platform consumer thread only.
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+
+  @Override
+  public long waitFor(long sequence, LongSupplier cursor, BooleanSupplier running) {
+    long available;
+    while ((available = cursor.getAsLong()) < sequence && running.getAsBoolean()) {
+      Thread.onSpinWait();
+    }
+    return available;
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.bravos.steak.logging.starter.core.wait;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Spins, then yields, then parks as the wait grows longer.
+ * Fast handoff for bursts while keeping idle CPU low between them.
+ */
+public final class PhasedBackoffWaitStrategy implements WaitStrategy {
+
+  private static final int SPIN_TRIES = 100;
+
+  private final long spinTimeoutNanos;
+  private final long yieldTimeoutNanos;
+  private final long parkNanos;
+
+  /**
+   * Spins for 10 microseconds, yields until 100 microseconds, then parks 100 microseconds between checks.
+   */
+  public PhasedBackoffWaitStrategy() {
+    this(10, 100, 100, TimeUnit.MICROSECONDS);
+  }
+
+  /**
+   * @param spinTimeout  how long to busy-spin before yielding
+   * @param yieldTimeout how long (from the start of the wait) to yield before parking
+   * @param parkTime     how long to park between checks once the yield phase is over
+   * @param unit         time unit of the three durations
+   */
+  public PhasedBackoffWaitStrategy(long spinTimeout, long yieldTimeout, long parkTime, TimeUnit unit) {
+    if (spinTimeout < 0 || yieldTimeout < spinTimeout || parkTime <= 0) {
+      throw new IllegalArgumentException("Require 0 <= spinTimeout <= yieldTimeout and parkTime > 0");
+    }
+    this.spinTimeoutNanos = unit.toNanos(spinTimeout);
+    this.yieldTimeoutNanos = unit.toNanos(yieldTimeout);
+    this.parkNanos = unit.toNanos(parkTime);
+  }
+
+  @Override
+  public long waitFor(long sequence, LongSupplier cursor, BooleanSupplier running) {
+    long startTime = 0L;
+    int counter = SPIN_TRIES;
+    long available;
+    while ((available = cursor.getAsLong()) < sequence && running.getAsBoolean()) {
+      if (--counter > 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      counter = SPIN_TRIES;
+      long now = System.nanoTime();
+      if (startTime == 0L) {
+        startTime = now;
+        continue;
+      }
+      long elapsed = now - startTime;
+      if (elapsed > yieldTimeoutNanos) {
+        LockSupport.parkNanos(parkNanos);
+        counter = 1; // re-check the clock right after every park
+      } else if (elapsed > spinTimeoutNanos) {
+        Thread.yield();
+      }
+    }
+    return available;
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.bravos.steak.logging.starter.core.wait;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Strategy used by the ring buffer consumer to wait for new events.
+ * Trades handoff latency against idle CPU usage.
+ */
+public interface WaitStrategy {
+
+  /**
+   * Waits until the cursor reaches the given sequence or the buffer stops running.
+   *
+   * @param sequence the sequence the consumer is waiting for
+   * @param cursor   supplies the highest published sequence, so claimed but unwritten slots do not wake the consumer
+   * @param running  returns false once the buffer is shutting down
+   * @return the last observed cursor value, which may be lower than {@code sequence} on shutdown
+   */
+  long waitFor(long sequence, LongSupplier cursor, BooleanSupplier running);
+
+  /**
+   * Wakes up a consumer blocked in {@link #waitFor}. Called by producers after every publish,
+   * so non-blocking strategies keep the default no-op.
+   */
+  default void signalAllWhenBlocking() {
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.bravos.steak.logging.starter.core.wait;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Spins for a bounded number of tries, then yields the thread between checks.
+ * Low latency while letting other threads run on the same core.
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+
+  private static final int SPIN_TRIES = 100;
+
+  @Override
+  public long waitFor(long sequence, LongSupplier cursor, BooleanSupplier running) {
+    int counter = SPIN_TRIES;
+    long available;
+    while ((available = cursor.getAsLong()) < sequence && running.getAsBoolean()) {
+      if (counter > 0) {
+        counter--;
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    }
+    return available;
+  }
+
+}
@@ -0,0 +1,278 @@
+package com.bravos.steak.logging.starter.journal;
+
+import com.bravos.steak.logging.starter.model.AuditLog;
+import com.bravos.steak.logging.starter.model.Origin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Crash-safe write-ahead log for audit records.
+ * <p>
+ * Every record is appended to a memory-mapped segment before it is sent to Kafka and acknowledged
+ * once the send completes. Acknowledging marks the record in place, so it is not replayed after a
+ * restart; a segment file is deleted when all of its records are acknowledged.
+ * Records written to the mapping survive a process crash. They are flushed to the device by group
+ * commit: a sync thread forces the segments every {@code syncInterval}, or sooner once
+ * {@code syncEveryRecords} records are pending, so an OS crash loses at most one sync window.
+ * <p>
+ * {@link #replay} hands back every record left unacknowledged by a previous run. Delivery is
+ * at-least-once: a record acknowledged shortly before an OS crash may be replayed again if its mark
+ * was not synced yet. Records lost to the segment limit are reported on stderr and counted by
+ * {@link #getEvictedCount}.
+ */
+public final class AuditWriteAheadLog {
+
+  private static final String SEGMENT_PREFIX = "audit";
+  private static final int REPLAY_BATCH = 256;
+
+  private final MappedSegmentLog log;
+  private final int syncEveryRecords;
+  private final long syncIntervalNanos;
+  private final AtomicInteger unsyncedRecords = new AtomicInteger();
+  /**
+   * Address of the first record appended by this run; replay stops before it.
+   */
+  private final long recoveredEnd;
+  private volatile boolean acknowledgedSinceSync;
+  private final LongAdder appendedRecords = new LongAdder();
+  private final LongAdder acknowledgedRecords = new LongAdder();
+  private final Thread syncer;
+  private volatile boolean running = true;
+
+  /**
+   * @param directory        where segment files are written
+   * @param segmentSize      bytes per segment file, mapped at full size when the segment is created
+   * @param maxSegments      segment files kept on disk; when exceeded the oldest unacknowledged records are lost
+   * @param syncEveryRecords pending records that trigger a sync before the interval elapses
+   * @param syncInterval     maximum time between syncs
+   */
+  public AuditWriteAheadLog(Path directory, int segmentSize, int maxSegments,
+                            int syncEveryRecords, Duration syncInterval) throws IOException {
+    this.log = new MappedSegmentLog(directory, SEGMENT_PREFIX, segmentSize, maxSegments, true);
+    this.recoveredEnd = log.endAddress();
+    this.syncEveryRecords = syncEveryRecords;
+    this.syncIntervalNanos = syncInterval.toNanos();
+    this.syncer = Thread.ofPlatform()
+        .name("audit-wal-sync")
+        .daemon(true)
+        .start(this::syncLoop);
+  }
+
+  /**
+   * Appends a record.
+   *
+   * @return the ticket to {@link #acknowledge} once the record was delivered
+   */
+  public long append(AuditLog auditLog) throws IOException {
+    long ticket = log.append(encode(auditLog));
+    appendedRecords.increment();
+    if (unsyncedRecords.incrementAndGet() >= syncEveryRecords) {
+      LockSupport.unpark(syncer);
+    }
+    return ticket;
+  }
+
+  /**
+   * Marks a record as delivered, allowing its segment to be truncated.
+   */
+  public void acknowledge(long ticket) {
+    try {
+      log.acknowledge(ticket);
+      acknowledgedRecords.increment();
+      acknowledgedSinceSync = true;
+    } catch (IOException e) {
+      System.err.println("Failed to truncate audit write-ahead log: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Hands every record recovered from disk at startup to {@code handler}, in batches read outside
+   * the log's lock so appends are not held up by slow sends. Records appended since the log was
+   * opened are not replayed. Each replayed record must be acknowledged with its ticket like a new one.
+   *
+   * @return the number of replayed records
+   */
+  public int replay(ReplayHandler handler) throws IOException {
+    List<Long> tickets = new ArrayList<>(REPLAY_BATCH);
+    List<byte[]> payloads = new ArrayList<>(REPLAY_BATCH);
+    int replayed = 0;
+    int drained;
+    do {
+      drained = log.drain(REPLAY_BATCH, (ticket, payload) -> {
+        if (ticket >= recoveredEnd) {
+          return false;
+        }
+        tickets.add(ticket);
+        payloads.add(payload);
+        return true;
+      });
+      for (int i = 0; i < drained; i++) {
+        AuditLog auditLog;
+        try {
+          auditLog = decode(payloads.get(i));
+        } catch (IOException e) {
+          // A corrupt record can never be delivered, drop it instead of replaying it forever
+          System.err.println("Dropping unreadable audit write-ahead log record: " + e.getMessage());
+          acknowledge(tickets.get(i));
+          continue;
+        }
+        handler.replay(auditLog, tickets.get(i));
+        replayed++;
+      }
+      tickets.clear();
+      payloads.clear();
+    } while (drained == REPLAY_BATCH);
+    return replayed;
+  }
+
+  public long getAppendedCount() {
+    return appendedRecords.sum();
+  }
+
+  public long getAcknowledgedCount() {
+    return acknowledgedRecords.sum();
+  }
+
+  /**
+   * @return unacknowledged records lost because their segment was evicted to respect the segment limit
+   */
+  public long getEvictedCount() {
+    return log.getEvictedRecords();
+  }
+
+  private void syncLoop() {
+    while (running) {
+      LockSupport.parkNanos(syncIntervalNanos);
+      sync();
+    }
+  }
+
+  private void sync() {
+    boolean acknowledged = acknowledgedSinceSync;
+    acknowledgedSinceSync = false;
+    if (unsyncedRecords.getAndSet(0) > 0 || acknowledged) {
+      try {
+        log.force();
+      } catch (Exception e) {
+        System.err.println("Failed to sync audit write-ahead log: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Stops the sync thread and closes the log after a final sync. Unacknowledged records stay on disk.
+   */
+  public void shutdown() {
+    running = false;
+    LockSupport.unpark(syncer);
+    try {
+      syncer.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      log.close();
+    } catch (IOException e) {
+      System.err.println("Failed to close audit write-ahead log: " + e.getMessage());
+    }
+  }
+
+  // ==================== ENCODING ====================
+
+  private static byte[] encode(AuditLog auditLog) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeLong(out, auditLog.getId());
+    writeLong(out, auditLog.getUserId());
+    Origin origin = auditLog.getOrigin();
+    out.writeBoolean(origin != null);
+    if (origin != null) {
+      writeString(out, origin.getUserAgent());
+      writeString(out, origin.getIpAddress());
+      writeString(out, origin.getLocation());
+    }
+    writeString(out, auditLog.getService());
+    writeString(out, auditLog.getEntityName());
+    writeString(out, auditLog.getEntityId());
+    writeString(out, auditLog.getAction());
+    writeString(out, auditLog.getOldValue());
+    writeString(out, auditLog.getNewValue());
+    writeString(out, auditLog.getMetadata());
+    writeString(out, auditLog.getMessage());
+    out.writeByte(auditLog.getSuccess() == null ? -1 : auditLog.getSuccess() ? 1 : 0);
+    writeString(out, auditLog.getReason());
+    writeLong(out, auditLog.getTimestamp());
+    return bytes.toByteArray();
+  }
+
+  private static AuditLog decode(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    AuditLog.AuditLogBuilder builder = AuditLog.builder()
+        .id(readLong(in))
+        .userId(readLong(in));
+    if (in.readBoolean()) {
+      builder.origin(new Origin(readString(in), readString(in), readString(in)));
+    }
+    builder
+        .service(readString(in))
+        .entityName(readString(in))
+        .entityId(readString(in))
+        .action(readString(in))
+        .oldValue(readString(in))
+        .newValue(readString(in))
+        .metadata(readString(in))
+        .message(readString(in));
+    byte success = in.readByte();
+    return builder
+        .success(success < 0 ? null : success == 1)
+        .reason(readString(in))
+        .timestamp(readLong(in))
+        .build();
+  }
+
+  private static void writeLong(DataOutputStream out, Long value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value);
+    }
+  }
+
+  private static Long readLong(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Receives audit records recovered from the log.
+   */
+  @FunctionalInterface
+  public interface ReplayHandler {
+    void replay(AuditLog auditLog, long ticket);
+  }
+
+}
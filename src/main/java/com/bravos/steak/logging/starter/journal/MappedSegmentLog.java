@@ -0,0 +1,459 @@
+package com.bravos.steak.logging.starter.journal;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of byte records stored in fixed-size, memory-mapped segment files.
+ * <p>
+ * Record layout: 4-byte payload length, 4-byte CRC32C of the payload, payload. Segment files are
+ * preallocated and zero-filled, so a zero length marks the end of a segment; a CRC mismatch marks a
+ * torn write after a crash. Existing segments in the directory are recovered on open.
+ * <p>
+ * Records are consumed either by {@link #drain} (queue mode) or by {@link #acknowledge} (acknowledge
+ * mode). Consuming a record negates its length in place, so consumed records are skipped after a
+ * restart as well; the marks reach the device with the next {@link #force}. A segment file is deleted
+ * once it is no longer the active one and all of its records are consumed. When the segment count
+ * would exceed the limit, the oldest segment is evicted.
+ * All methods are synchronized; the log is meant for slow paths, not per-event hot paths. {@link #force}
+ * only collects the dirty ranges under the lock and flushes them outside it, so appends and
+ * acknowledgements do not wait for the device.
+ */
+public final class MappedSegmentLog implements AutoCloseable {
+
+  private static final int RECORD_HEADER = 2 * Integer.BYTES;
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path directory;
+  private final String prefix;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final boolean acknowledgeMode;
+  private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+  private final CRC32C crc = new CRC32C();
+  private final Object forceLock = new Object();
+
+  private long nextSegmentIndex;
+  private long evictedRecords;
+  private boolean closed;
+
+  /**
+   * @param directory       where segment files live; created if missing
+   * @param prefix          segment file name prefix, so several logs can share a directory
+   * @param segmentSize     bytes per segment file
+   * @param maxSegments     maximum number of segment files kept on disk
+   * @param acknowledgeMode if true, records are consumed by {@link #acknowledge} rather than {@link #drain}
+   */
+  public MappedSegmentLog(Path directory, String prefix, int segmentSize, int maxSegments,
+                          boolean acknowledgeMode) throws IOException {
+    if (segmentSize <= RECORD_HEADER || maxSegments < 1) {
+      throw new IllegalArgumentException("Segment size must exceed the record header and maxSegments must be positive");
+    }
+    this.directory = directory;
+    this.prefix = prefix;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    this.acknowledgeMode = acknowledgeMode;
+
+    Files.createDirectories(directory);
+    List<Path> existing;
+    try (Stream<Path> files = Files.list(directory)) {
+      existing = files
+          .filter(path -> isSegmentFile(path.getFileName().toString()))
+          .sorted()
+          .toList();
+    }
+    for (Path path : existing) {
+      Segment segment = Segment.open(path, segmentIndex(path.getFileName().toString()), crc);
+      segments.addLast(segment);
+      nextSegmentIndex = segment.index + 1;
+    }
+    // Segments consumed completely before the last shutdown or crash
+    Iterator<Segment> iterator = segments.iterator();
+    while (iterator.hasNext()) {
+      Segment segment = iterator.next();
+      if (segment != segments.getLast() && segment.unconsumed == 0) {
+        iterator.remove();
+        segment.delete();
+      }
+    }
+    if (segments.isEmpty() || segments.getLast().size < segmentSize) {
+      roll();
+    }
+  }
+
+  /**
+   * Appends a record, rolling to a new segment if the active one is full.
+   *
+   * @return the address of the record, for {@link #acknowledge}; addresses grow with every append
+   */
+  public synchronized long append(byte[] payload) throws IOException {
+    ensureOpen();
+    if (payload.length > segmentSize - RECORD_HEADER) {
+      throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+    }
+    Segment active = segments.getLast();
+    if (active.writePosition + RECORD_HEADER + payload.length > active.size) {
+      roll();
+      active = segments.getLast();
+    }
+    long position = active.writePosition;
+    crc.reset();
+    crc.update(payload);
+    MemorySegment.copy(payload, 0, active.memory, ValueLayout.JAVA_BYTE, position + RECORD_HEADER, payload.length);
+    active.memory.set(ValueLayout.JAVA_INT_UNALIGNED, position + Integer.BYTES, (int) crc.getValue());
+    // Length last: a record only becomes visible once it is complete
+    active.memory.set(ValueLayout.JAVA_INT_UNALIGNED, position, payload.length);
+    active.writePosition += RECORD_HEADER + payload.length;
+    active.unconsumed++;
+    return address(active.index, position);
+  }
+
+  /**
+   * @return the address the next record will get at the earliest; every record appended so far is below it
+   */
+  public synchronized long endAddress() {
+    Segment active = segments.getLast();
+    return address(active.index, active.writePosition);
+  }
+
+  /**
+   * Hands unread records, oldest first, to {@code consumer} until it returns false or
+   * {@code maxRecords} were accepted. A rejected record stays unread.
+   *
+   * @return the number of accepted records
+   */
+  public synchronized int drain(int maxRecords, RecordConsumer consumer) throws IOException {
+    ensureOpen();
+    int accepted = 0;
+    Iterator<Segment> iterator = segments.iterator();
+    while (iterator.hasNext() && accepted < maxRecords) {
+      Segment segment = iterator.next();
+      while (segment.readPosition < segment.writePosition && accepted < maxRecords) {
+        int length = segment.memory.get(ValueLayout.JAVA_INT_UNALIGNED, segment.readPosition);
+        if (length < 0) {
+          // Consumed before a restart
+          segment.readPosition += RECORD_HEADER - length;
+          continue;
+        }
+        byte[] payload = segment.memory
+            .asSlice(segment.readPosition + RECORD_HEADER, length)
+            .toArray(ValueLayout.JAVA_BYTE);
+        if (!consumer.accept(address(segment.index, segment.readPosition), payload)) {
+          return accepted;
+        }
+        if (!acknowledgeMode) {
+          segment.markConsumed(segment.readPosition, length);
+        }
+        segment.readPosition += RECORD_HEADER + length;
+        accepted++;
+      }
+      if (segment != segments.getLast() && segment.unconsumed == 0) {
+        iterator.remove();
+        segment.delete();
+      }
+    }
+    return accepted;
+  }
+
+  /**
+   * Marks the record at {@code address} as consumed (acknowledge mode). Acknowledging a record twice,
+   * or one whose segment is gone, has no effect.
+   */
+  public synchronized void acknowledge(long address) throws IOException {
+    if (closed) return;
+    long segmentIndex = address >>> 32;
+    long position = address & 0xFFFF_FFFFL;
+    Iterator<Segment> iterator = segments.iterator();
+    while (iterator.hasNext()) {
+      Segment segment = iterator.next();
+      if (segment.index == segmentIndex) {
+        if (position < segment.writePosition) {
+          int length = Math.abs(segment.memory.get(ValueLayout.JAVA_INT_UNALIGNED, position));
+          segment.markConsumed(position, length);
+        }
+        if (segment != segments.getLast() && segment.unconsumed == 0) {
+          iterator.remove();
+          segment.delete();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Flushes everything appended or consumed since the last call to the storage device.
+   */
+  public void force() {
+    synchronized (forceLock) {
+      List<Segment> dirty;
+      List<MemorySegment> ranges = new ArrayList<>();
+      synchronized (this) {
+        if (closed) return;
+        dirty = takeDirtyRanges(ranges);
+      }
+      try {
+        for (MemorySegment range : ranges) {
+          range.force();
+        }
+      } finally {
+        synchronized (this) {
+          for (Segment segment : dirty) {
+            try {
+              segment.forced();
+            } catch (IOException e) {
+              System.err.println("Failed to release segment " + segment.path + ": " + e.getMessage());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the range of each segment written or consumed since the last force into {@code ranges} and
+   * pins those segments until {@link Segment#forced()}, so a segment deleted meanwhile stays mapped.
+   *
+   * @return the pinned segments
+   */
+  private List<Segment> takeDirtyRanges(List<MemorySegment> ranges) {
+    List<Segment> dirty = new ArrayList<>();
+    for (Segment segment : segments) {
+      long from = Math.min(segment.forcedPosition, segment.consumedFrom);
+      if (from < segment.writePosition) {
+        ranges.add(segment.memory.asSlice(from, segment.writePosition - from));
+        segment.forcedPosition = segment.writePosition;
+        segment.consumedFrom = Long.MAX_VALUE;
+        segment.forcing++;
+        dirty.add(segment);
+      }
+    }
+    return dirty;
+  }
+
+  /**
+   * @return true if every record was drained (queue mode) or acknowledged (acknowledge mode)
+   */
+  public synchronized boolean isEmpty() {
+    for (Segment segment : segments) {
+      if (segment.unconsumed > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return records lost because their segment was evicted to respect the segment limit
+   */
+  public synchronized long getEvictedRecords() {
+    return evictedRecords;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    List<MemorySegment> ranges = new ArrayList<>();
+    List<Segment> dirty = takeDirtyRanges(ranges);
+    List<IOException> failures = new ArrayList<>();
+    try {
+      for (MemorySegment range : ranges) {
+        range.force();
+      }
+    } finally {
+      for (Segment segment : dirty) {
+        segment.forcing--;
+      }
+    }
+    for (Segment segment : segments) {
+      try {
+        segment.close();
+      } catch (IOException e) {
+        failures.add(e);
+      }
+    }
+    segments.clear();
+    if (!failures.isEmpty()) {
+      throw failures.getFirst();
+    }
+  }
+
+  private void roll() throws IOException {
+    Segment previous = segments.peekLast();
+    if (segments.size() >= maxSegments) {
+      Segment oldest = segments.removeFirst();
+      if (oldest.unconsumed > 0) {
+        evictedRecords += oldest.unconsumed;
+        System.err.println("Segment log " + prefix + " reached " + maxSegments + " segments, evicted "
+            + oldest.unconsumed + " unconsumed records (" + evictedRecords + " in total)");
+      }
+      oldest.delete();
+    }
+    Path path = directory.resolve(String.format("%s-%020d%s", prefix, nextSegmentIndex, SEGMENT_SUFFIX));
+    segments.addLast(Segment.create(path, nextSegmentIndex++, segmentSize));
+    if (previous != null && segments.contains(previous) && previous.unconsumed == 0) {
+      segments.remove(previous);
+      previous.delete();
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Log " + prefix + " is closed");
+    }
+  }
+
+  private boolean isSegmentFile(String fileName) {
+    return fileName.startsWith(prefix + "-") && fileName.endsWith(SEGMENT_SUFFIX);
+  }
+
+  private static long address(long segmentIndex, long position) {
+    return segmentIndex << 32 | position;
+  }
+
+  private long segmentIndex(String fileName) {
+    return Long.parseLong(fileName.substring(prefix.length() + 1, fileName.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /**
+   * Receives records read from the log.
+   */
+  @FunctionalInterface
+  public interface RecordConsumer {
+
+    /**
+     * @param address the record's address, for {@link #acknowledge}
+     * @return false to stop draining and leave this record unread
+     */
+    boolean accept(long address, byte[] payload) throws IOException;
+  }
+
+  private static final class Segment {
+
+    final long index;
+    final Path path;
+    final FileChannel channel;
+    final Arena arena;
+    final MemorySegment memory;
+    final long size;
+    long writePosition;
+    long readPosition;
+    long forcedPosition;
+    // Lowest record consumed since the last force, Long.MAX_VALUE if none
+    long consumedFrom = Long.MAX_VALUE;
+    int unconsumed;
+    // Forces in flight outside the log's lock; closing waits for them
+    int forcing;
+    boolean retired;
+    boolean deleteOnRetire;
+
+    private Segment(long index, Path path, FileChannel channel, long size) throws IOException {
+      this.index = index;
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+      // Shared arena: the mapping is released deterministically on close, not by the GC
+      this.arena = Arena.ofShared();
+      this.memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+    }
+
+    static Segment create(Path path, long index, int size) throws IOException {
+      FileChannel channel = FileChannel.open(path,
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      return new Segment(index, path, channel, size);
+    }
+
+    /**
+     * Maps an existing segment, finds the end of its last intact record and skips the records
+     * consumed before.
+     */
+    static Segment open(Path path, long index, CRC32C crc) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      Segment segment = new Segment(index, path, channel, channel.size());
+      long position = 0;
+      long firstUnconsumed = -1;
+      while (position + RECORD_HEADER <= segment.size) {
+        int stored = segment.memory.get(ValueLayout.JAVA_INT_UNALIGNED, position);
+        int length = Math.abs(stored);
+        if (stored == 0 || stored == Integer.MIN_VALUE || position + RECORD_HEADER + length > segment.size) {
+          break;
+        }
+        crc.reset();
+        crc.update(segment.memory.asSlice(position + RECORD_HEADER, length).asByteBuffer());
+        if ((int) crc.getValue() != segment.memory.get(ValueLayout.JAVA_INT_UNALIGNED, position + Integer.BYTES)) {
+          break;
+        }
+        if (stored > 0) {
+          segment.unconsumed++;
+          if (firstUnconsumed < 0) {
+            firstUnconsumed = position;
+          }
+        }
+        position += RECORD_HEADER + length;
+      }
+      segment.writePosition = position;
+      segment.forcedPosition = position;
+      segment.readPosition = firstUnconsumed >= 0 ? firstUnconsumed : position;
+      return segment;
+    }
+
+    /**
+     * Negates the stored length of the record at {@code position}, if it is not consumed yet.
+     */
+    boolean markConsumed(long position, int length) {
+      if (memory.get(ValueLayout.JAVA_INT_UNALIGNED, position) != length) {
+        return false;
+      }
+      memory.set(ValueLayout.JAVA_INT_UNALIGNED, position, -length);
+      unconsumed--;
+      consumedFrom = Math.min(consumedFrom, position);
+      return true;
+    }
+
+    /**
+     * Unpins the segment after a force, finishing a close or delete that came in meanwhile.
+     */
+    void forced() throws IOException {
+      if (--forcing == 0 && retired) {
+        if (deleteOnRetire) {
+          delete();
+        } else {
+          close();
+        }
+      }
+    }
+
+    void close() throws IOException {
+      if (forcing > 0) {
+        retired = true;
+        return;
+      }
+      arena.close();
+      channel.close();
+    }
+
+    void delete() throws IOException {
+      if (forcing > 0) {
+        retired = true;
+        deleteOnRetire = true;
+        return;
+      }
+      close();
+      Files.deleteIfExists(path);
+    }
+  }
+
+}
@@ -0,0 +1,307 @@
+package com.bravos.steak.logging.starter.journal;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Disk overflow stage for events that found the ring buffer full.
+ * Rejected events are appended to a {@link MappedSegmentLog}, and a background replayer hands them
+ * back to a {@link ReplaySink} once the ring buffer has room again. Disk usage is bounded by the
+ * segment count; when it is reached the oldest segment is evicted.
+ * <p>
+ * Events still journaled at shutdown stay on disk and are replayed after the next start; events already
+ * re-injected are marked consumed in the journal and are not replayed again.
+ * Metadata and context numbers are widened to {@code Long}/{@code Double} and unknown value types are stored
+ * as their {@code toString()}.
+ */
+public final class OverflowJournal {
+
+  private static final String SEGMENT_PREFIX = "overflow";
+  private static final int REPLAY_BATCH = 256;
+  private static final long REPLAY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_DOUBLE = 3;
+  private static final byte TYPE_BOOLEAN = 4;
+
+  private final MappedSegmentLog log;
+  private final ReplaySink sink;
+  private final LongAdder journaledEvents = new LongAdder();
+  private final LongAdder replayedEvents = new LongAdder();
+  private final LongAdder failedEvents = new LongAdder();
+  private final Thread replayer;
+  private volatile boolean running = true;
+
+  /**
+   * @param directory   where segment files are written
+   * @param segmentSize bytes per segment file
+   * @param maxSegments segment files kept before the oldest is evicted
+   * @param sink        re-injects replayed events into the ring buffer
+   */
+  public OverflowJournal(Path directory, int segmentSize, int maxSegments, ReplaySink sink) throws IOException {
+    this.log = new MappedSegmentLog(directory, SEGMENT_PREFIX, segmentSize, maxSegments, false);
+    this.sink = sink;
+    this.replayer = Thread.ofVirtual()
+        .name("overflow-journal-replayer")
+        .start(this::replayLoop);
+  }
+
+  /**
+   * Appends an event the ring buffer could not take.
+   *
+   * @return true if the event was journaled, false if it could not be written
+   */
+  public boolean append(long id, String traceId, String level, String eventName, String message,
+                        String exceptionTrace, Map<String, Object> metadata, Map<String, Object> context,
+                        long timestamp, int timestampNanos, String sourceClassName) {
+    try {
+      log.append(encode(id, traceId, level, eventName, message, exceptionTrace, metadata, context, timestamp,
+          timestampNanos, sourceClassName));
+      journaledEvents.increment();
+      return true;
+    } catch (IOException | RuntimeException e) {
+      failedEvents.increment();
+      System.err.println("Failed to journal overflowed event log: " + e.getMessage());
+      return false;
+    }
+  }
+
+  public long getJournaledCount() {
+    return journaledEvents.sum();
+  }
+
+  public long getReplayedCount() {
+    return replayedEvents.sum();
+  }
+
+  /**
+   * @return events that could not be journaled or decoded again
+   */
+  public long getFailedCount() {
+    return failedEvents.sum();
+  }
+
+  /**
+   * @return journaled events lost because their segment was evicted before replay
+   */
+  public long getEvictedCount() {
+    return log.getEvictedRecords();
+  }
+
+  private void replayLoop() {
+    while (running) {
+      int replayed = 0;
+      try {
+        replayed = log.drain(REPLAY_BATCH, (_, payload) -> replay(payload));
+      } catch (Exception e) {
+        System.err.println("Failed to replay overflow journal: " + e.getMessage());
+      }
+      if (replayed < REPLAY_BATCH) {
+        LockSupport.parkNanos(REPLAY_INTERVAL_NANOS);
+      }
+    }
+  }
+
+  private boolean replay(byte[] payload) {
+    JournaledEvent event;
+    try {
+      event = decode(payload);
+    } catch (IOException e) {
+      // A corrupt record can never be replayed, skip it
+      failedEvents.increment();
+      return true;
+    }
+    if (!sink.replay(event)) {
+      return false;
+    }
+    replayedEvents.increment();
+    return true;
+  }
+
+  public void shutdown() {
+    running = false;
+    LockSupport.unpark(replayer);
+    try {
+      replayer.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      log.close();
+    } catch (IOException e) {
+      System.err.println("Failed to close overflow journal: " + e.getMessage());
+    }
+  }
+
+  // ==================== ENCODING ====================
+
+  private static byte[] encode(long id, String traceId, String level, String eventName, String message,
+                               String exceptionTrace, Map<String, Object> metadata, Map<String, Object> context,
+                               long timestamp, int timestampNanos, String sourceClassName) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeLong(id);
+    out.writeLong(timestamp);
+    writeString(out, traceId);
+    writeString(out, level);
+    writeString(out, eventName);
+    writeString(out, message);
+    writeString(out, exceptionTrace);
+    writeString(out, sourceClassName);
+    writeMap(out, metadata);
+    // Optional trailing fields, so records written by older versions still decode
+    writeMap(out, context);
+    out.writeInt(timestampNanos);
+    return bytes.toByteArray();
+  }
+
+  private static JournaledEvent decode(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    long id = in.readLong();
+    long timestamp = in.readLong();
+    String traceId = readString(in);
+    String level = readString(in);
+    String eventName = readString(in);
+    String message = readString(in);
+    String exceptionTrace = readString(in);
+    String sourceClassName = readString(in);
+    Map<String, Object> metadata = readMap(in);
+    Map<String, Object> context = in.available() > 0 ? readMap(in) : null;
+    int timestampNanos = in.available() > 0 ? in.readInt() : -1;
+    return new JournaledEvent(id, traceId, level, eventName, message, exceptionTrace, metadata, context,
+        timestamp, timestampNanos, sourceClassName);
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, Object> map) throws IOException {
+    if (map == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(map.size());
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      writeValue(out, entry.getValue());
+    }
+  }
+
+  private static Map<String, Object> readMap(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    Map<String, Object> map = HashMap.newHashMap(size);
+    for (int i = 0; i < size; i++) {
+      map.put(readString(in), readValue(in));
+    }
+    return map;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    switch (value) {
+      case null -> out.writeByte(TYPE_NULL);
+      case Boolean b -> {
+        out.writeByte(TYPE_BOOLEAN);
+        out.writeBoolean(b);
+      }
+      case Double d -> {
+        out.writeByte(TYPE_DOUBLE);
+        out.writeDouble(d);
+      }
+      case Float f -> {
+        out.writeByte(TYPE_DOUBLE);
+        out.writeDouble(f);
+      }
+      case Long l -> {
+        out.writeByte(TYPE_LONG);
+        out.writeLong(l);
+      }
+      case Integer i -> {
+        out.writeByte(TYPE_LONG);
+        out.writeLong(i);
+      }
+      case Short s -> {
+        out.writeByte(TYPE_LONG);
+        out.writeLong(s);
+      }
+      case Byte b -> {
+        out.writeByte(TYPE_LONG);
+        out.writeLong(b);
+      }
+      default -> {
+        out.writeByte(TYPE_STRING);
+        writeString(out, value.toString());
+      }
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    return switch (type) {
+      case TYPE_NULL -> null;
+      case TYPE_STRING -> readString(in);
+      case TYPE_LONG -> in.readLong();
+      case TYPE_DOUBLE -> in.readDouble();
+      case TYPE_BOOLEAN -> in.readBoolean();
+      default -> throw new IOException("Unknown metadata value type " + type);
+    };
+  }
+
+  /**
+   * An event read back from the journal.
+   */
+  public record JournaledEvent(
+      long id,
+      String traceId,
+      String level,
+      String eventName,
+      String message,
+      String exceptionTrace,
+      Map<String, Object> metadata,
+      Map<String, Object> context,
+      long timestamp,
+      int timestampNanos,
+      String sourceClassName
+  ) {
+  }
+
+  /**
+   * Re-injects journaled events into the ring buffer.
+   */
+  @FunctionalInterface
+  public interface ReplaySink {
+
+    /**
+     * Called on the replayer thread.
+     *
+     * @return false if the ring buffer has no room yet; the event is offered again later
+     */
+    boolean replay(JournaledEvent event);
+  }
+
+}
@@ -31,6 +31,10 @@ public class EventLog {
 
   Map<String, Object> metadata;
 
+  Map<String, Object> context;
+
   Long timestamp;
 
+  Integer timestampNanos;
+
 }
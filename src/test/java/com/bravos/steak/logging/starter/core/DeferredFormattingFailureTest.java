@@ -0,0 +1,83 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.model.EventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An argument whose {@code toString()} throws while its slot is written must not leave the slot unpublished.
+ */
+class DeferredFormattingFailureTest {
+
+  private final BlockingQueue<EventLog> sent = new LinkedBlockingQueue<>();
+  private LoggerFactory loggerFactory;
+
+  @AfterEach
+  void tearDown() {
+    loggerFactory.shutdown();
+  }
+
+  @Test
+  void eventAfterAFailedSnapshotIsStillDelivered() throws InterruptedException {
+    loggerFactory = LoggerFactory.builder()
+        .serviceName("test")
+        .kafkaTemplate(new RecordingKafkaTemplate(sent))
+        .consoleEnabled(false)
+        .deferredFormatting(true)
+        .traceIdGenerator(() -> "trace")
+        .build();
+    Logger logger = loggerFactory.getLogger(DeferredFormattingFailureTest.class);
+
+    logger.info("BROKEN", "Value {}", new Object() {
+      @Override
+      public String toString() {
+        throw new IllegalStateException("boom");
+      }
+    });
+    logger.info("AFTER", "Value {}", 42);
+
+    EventLog broken = sent.poll(5, TimeUnit.SECONDS);
+    assertNotNull(broken, "the event with the failing argument should be published");
+    assertEquals("BROKEN", broken.getEventName());
+    assertTrue(broken.getMessage().contains("Failed to format log message"), broken.getMessage());
+
+    EventLog after = sent.poll(5, TimeUnit.SECONDS);
+    assertNotNull(after, "the shard should not stall behind the failed event");
+    assertEquals("AFTER", after.getEventName());
+    assertTrue(after.getMessage().endsWith("Value 42"), after.getMessage());
+  }
+
+  private static final class RecordingKafkaTemplate extends KafkaTemplate<String, Object> {
+
+    private final BlockingQueue<EventLog> sent;
+
+    RecordingKafkaTemplate(BlockingQueue<EventLog> sent) {
+      super(new DefaultKafkaProducerFactory<>(Map.of()));
+      this.sent = sent;
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, Object>> send(String topic, Object data) {
+      sent.add((EventLog) data);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void flush() {
+    }
+  }
+
+}
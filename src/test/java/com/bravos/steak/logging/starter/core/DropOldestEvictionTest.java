@@ -0,0 +1,89 @@
+package com.bravos.steak.logging.starter.core;
+
+import com.bravos.steak.logging.starter.core.wait.BlockingWaitStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Slots evicted for drop-oldest backpressure are free before the rest of the batch is delivered.
+ */
+class DropOldestEvictionTest {
+
+  private final List<String> delivered = new CopyOnWriteArrayList<>();
+  private final CountDownLatch firstEntered = new CountDownLatch(1);
+  private final CountDownLatch firstGate = new CountDownLatch(1);
+  private final CountDownLatch secondEntered = new CountDownLatch(1);
+  private final CountDownLatch secondGate = new CountDownLatch(1);
+  private AsyncLogRingBuffer ringBuffer;
+
+  @AfterEach
+  void tearDown() {
+    firstGate.countDown();
+    secondGate.countDown();
+    ringBuffer.shutdown();
+  }
+
+  @Test
+  void evictedSlotsAreReleasedBeforeTheBatchIsDelivered() throws InterruptedException {
+    ringBuffer = new AsyncLogRingBuffer(4, (event, _, _) -> {
+      delivered.add(event.getEventName());
+      if ("FIRST".equals(event.getEventName())) {
+        await(firstEntered, firstGate);
+      } else if ("SECOND".equals(event.getEventName())) {
+        await(secondEntered, secondGate);
+      }
+    }, new BlockingWaitStrategy(), ConsumerThreadMode.PLATFORM);
+    RingSequencer sequencer = ringBuffer.sequencer();
+
+    publish("FIRST");
+    assertTrue(firstEntered.await(5, TimeUnit.SECONDS));
+    // FIRST is still being delivered, so these fill the ring
+    publish("OLD_1");
+    publish("OLD_2");
+    publish("SECOND");
+    assertEquals(-1, sequencer.tryNext(1));
+
+    // Two producers ask for room, then the consumer starts its next batch: OLD_1, OLD_2, SECOND
+    sequencer.requestEviction();
+    sequencer.requestEviction();
+    firstGate.countDown();
+    assertTrue(secondEntered.await(5, TimeUnit.SECONDS));
+
+    // SECOND is still being delivered: FIRST's slot and both evicted slots are free
+    for (int i = 0; i < 3; i++) {
+      assertTrue(sequencer.tryNext(1) >= 0, "slot " + i + " should be free while the batch is delivered");
+    }
+    assertEquals(-1, sequencer.tryNext(1));
+    assertEquals(2, sequencer.getEvictedCount());
+
+    secondGate.countDown();
+    assertEquals(List.of("FIRST", "SECOND"), delivered);
+  }
+
+  private void publish(String eventName) {
+    RingSequencer sequencer = ringBuffer.sequencer();
+    long sequence = sequencer.tryNext(1);
+    assertTrue(sequence >= 0, "ring should have room for " + eventName);
+    ringBuffer.get(sequence).set(0L, "trace", LogLevel.INFO.name(), eventName, eventName, "test",
+        null, null, System.currentTimeMillis(), DropOldestEvictionTest.class);
+    sequencer.publish(sequence);
+  }
+
+  private static void await(CountDownLatch entered, CountDownLatch gate) {
+    entered.countDown();
+    try {
+      gate.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}